@@ -19,11 +19,9 @@ import org.junit.ClassRule;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.mozilla.focus.R;
+import org.mozilla.focus.autocomplete.CustomDomainStore;
 import org.mozilla.focus.helpers.TestHelper;
 
-import java.util.Collections;
-
-import mozilla.components.browser.domains.CustomDomains;
 import tools.fastlane.screengrab.Screengrab;
 import tools.fastlane.screengrab.locale.LocaleTestRule;
 
@@ -57,9 +55,7 @@ public class SettingsScreenshots extends ScreenshotTest {
                 .edit()
                 .clear()
                 .apply();
-        CustomDomains.INSTANCE.save(
-                InstrumentationRegistry.getInstrumentation().getTargetContext(),
-                Collections.<String>emptyList());
+        CustomDomainStore.clear(InstrumentationRegistry.getInstrumentation().getTargetContext());
 
         final Context appContext = InstrumentationRegistry.getInstrumentation()
                 .getTargetContext()
@@ -7,8 +7,6 @@ package org.mozilla.focus
 import android.content.Context
 import android.util.AttributeSet
 import mozilla.components.browser.search.SearchEngineManager
-import mozilla.components.browser.search.provider.AssetsSearchEngineProvider
-import mozilla.components.browser.search.provider.localization.LocaleSearchLocalizationProvider
 import mozilla.components.browser.session.Session
 import mozilla.components.browser.session.SessionManager
 import mozilla.components.concept.engine.DefaultSettings
@@ -16,9 +14,8 @@ import mozilla.components.concept.engine.Engine
 import mozilla.components.concept.engine.EngineSession
 import mozilla.components.concept.engine.EngineView
 import mozilla.components.concept.engine.Settings
-import org.mozilla.focus.search.BingSearchEngineFilter
+import org.mozilla.focus.search.BundledSearchEngineProvider
 import org.mozilla.focus.search.CustomSearchEngineProvider
-import org.mozilla.focus.search.HiddenSearchEngineFilter
 
 /**
  * Helper object for lazily initializing components.
@@ -31,14 +28,11 @@ class Components {
     }
 
     val searchEngineManager by lazy {
-        val assetsProvider = AssetsSearchEngineProvider(
-                LocaleSearchLocalizationProvider(),
-                filters = listOf(BingSearchEngineFilter(), HiddenSearchEngineFilter()),
-                additionalIdentifiers = listOf("ddg"))
+        val bundledProvider = BundledSearchEngineProvider()
 
         val customProvider = CustomSearchEngineProvider()
 
-        SearchEngineManager(listOf(assetsProvider, customProvider))
+        SearchEngineManager(listOf(bundledProvider, customProvider))
     }
 }
 
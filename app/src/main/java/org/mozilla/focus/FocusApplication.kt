@@ -5,43 +5,74 @@
 
 package org.mozilla.focus
 
+import android.content.ComponentCallbacks2
 import android.os.StrictMode
+import android.support.annotation.WorkerThread
 import android.support.v7.preference.PreferenceManager
-import kotlinx.coroutines.experimental.CoroutineDispatcher
-import kotlinx.coroutines.experimental.asCoroutineDispatcher
-import kotlinx.coroutines.experimental.launch
 import kotlinx.coroutines.experimental.runBlocking
 import kotlinx.coroutines.experimental.withTimeoutOrNull
 import mozilla.components.service.fretboard.Fretboard
 import mozilla.components.service.fretboard.source.kinto.KintoExperimentSource
 import mozilla.components.service.fretboard.storage.flatfile.FlatFileExperimentStorage
+import org.mozilla.focus.browser.LocalizedContent
+import org.mozilla.focus.ext.savedWebViewState
 import org.mozilla.focus.locale.LocaleAwareApplication
+import org.mozilla.focus.locale.Locales
+import org.mozilla.focus.memory.MemoryPressureManager
+import org.mozilla.focus.search.SearchEngineIconStore
 import org.mozilla.focus.session.NotificationSessionObserver
 import org.mozilla.focus.session.VisibilityLifeCycleCallback
+import org.mozilla.focus.startup.StartupScheduler
+import org.mozilla.focus.startup.StartupTrace
 import org.mozilla.focus.telemetry.SentryWrapper
 import org.mozilla.focus.telemetry.TelemetrySessionObserver
 import org.mozilla.focus.telemetry.TelemetryWrapper
 import org.mozilla.focus.utils.AdjustHelper
 import org.mozilla.focus.utils.AppConstants
+import org.mozilla.focus.utils.Browsers
+import org.mozilla.focus.utils.BrowsersCache
 import org.mozilla.focus.utils.EXPERIMENTS_BASE_URL
 import org.mozilla.focus.utils.EXPERIMENTS_BUCKET_NAME
 import org.mozilla.focus.utils.EXPERIMENTS_COLLECTION_NAME
 import org.mozilla.focus.utils.EXPERIMENTS_JSON_FILENAME
+import org.mozilla.focus.utils.ExperimentSnapshot
+import org.mozilla.focus.utils.HtmlLoader
 import org.mozilla.focus.utils.StethoWrapper
+import org.mozilla.focus.utils.activeExperimentNames
+import org.mozilla.focus.utils.knownExperimentDescriptors
 import org.mozilla.focus.web.CleanupSessionObserver
 import org.mozilla.focus.web.WebViewProvider
 import java.io.File
 import java.util.concurrent.Executors
 
-val IO: CoroutineDispatcher by lazy {
-    Executors.newCachedThreadPool().asCoroutineDispatcher()
-}
-
 class FocusApplication : LocaleAwareApplication() {
-    lateinit var fretboard: Fretboard
+    private lateinit var experiments: Fretboard
+
+    @Volatile
+    var isExperimentsLoaded = false
+        private set
+
+    /**
+     * The experiment decisions of the last run. Used until all experiments have been loaded.
+     */
+    @Volatile
+    var experimentSnapshot: ExperimentSnapshot? = null
+        private set
+
+    /**
+     * Fretboard with all experiments loaded. Accessing it will load the experiments from disk if
+     * this hasn't happened yet.
+     */
+    val fretboard: Fretboard
+        get() {
+            ensureExperimentsLoaded()
+            return experiments
+        }
 
     companion object {
         private const val FRETBOARD_BLOCKING_NETWORK_READ_TIMEOUT = 10000
+        private const val EXPERIMENT_SNAPSHOT_FILENAME = "experiments.snapshot"
+        private const val STARTUP_THREADS = 2
     }
 
     val components: Components by lazy { Components() }
@@ -50,6 +81,8 @@ class FocusApplication : LocaleAwareApplication() {
         private set
 
     override fun onCreate() {
+        val traceStart = StartupTrace.begin()
+
         super.onCreate()
 
         SentryWrapper.init(this)
@@ -57,47 +90,158 @@ class FocusApplication : LocaleAwareApplication() {
 
         PreferenceManager.setDefaultValues(this, R.xml.settings, false)
 
-        runBlocking {
-            loadExperiments()
+        StartupScheduler(Executors.newFixedThreadPool(STARTUP_THREADS))
+            .add(StartupScheduler.Task("strict_mode", mainThread = true) {
+                enableStrictMode()
+            })
+            .add(StartupScheduler.Task("experiments") {
+                loadExperiments()
+            })
+            .add(StartupScheduler.Task("engine", dependsOn = listOf("experiments"), mainThread = true) {
+                WebViewProvider.determineEngine(this@FocusApplication)
+            })
+            .add(StartupScheduler.Task("experiments_update", dependsOn = listOf("telemetry"), blocking = false) {
+                ensureExperimentsLoaded()
+                refreshExperimentSnapshot()
 
-            enableStrictMode()
+                runBlocking {
+                    withTimeoutOrNull(FRETBOARD_BLOCKING_NETWORK_READ_TIMEOUT) {
+                        experiments.updateExperiments() // then update disk and memory from the network
+                    }
+                }
 
-            components.searchEngineManager.apply {
-                launch(IO) {
+                // The new decisions take effect on the next start.
+                refreshExperimentSnapshot()
+            })
+            .add(StartupScheduler.Task("search_engines", blocking = false) {
+                components.searchEngineManager.apply {
                     load(this@FocusApplication)
+                    registerForLocaleUpdates(this@FocusApplication)
                 }
+            })
+            .add(StartupScheduler.Task("browsers", blocking = false) {
+                BrowsersCache.registerPackageReceiver(this@FocusApplication)
+                BrowsersCache.prefetch(this@FocusApplication, Browsers.TRADITIONAL_BROWSER_URL)
+            })
+            .add(StartupScheduler.Task("telemetry", dependsOn = listOf("engine")) {
+                TelemetryWrapper.init(this@FocusApplication)
+            })
+            .add(StartupScheduler.Task("adjust", mainThread = true) {
+                AdjustHelper.setupAdjustIfNeeded(this@FocusApplication)
+            })
+            .add(StartupScheduler.Task("lifecycle_callbacks", mainThread = true) {
+                visibilityLifeCycleCallback = VisibilityLifeCycleCallback(this@FocusApplication)
+                registerActivityLifecycleCallbacks(visibilityLifeCycleCallback)
+            })
+            .add(StartupScheduler.Task("session_observers", mainThread = true) {
+                components.sessionManager.apply {
+                    register(NotificationSessionObserver(this@FocusApplication))
+                    register(TelemetrySessionObserver(this))
+                    register(CleanupSessionObserver(this@FocusApplication))
+                }
+            })
+            .add(StartupScheduler.Task("trimmable_caches", dependsOn = listOf("engine"), blocking = false) {
+                registerTrimmableCaches()
+            })
+            .run()
+
+        StartupTrace.end("application_create", traceStart)
+    }
+
+    override fun onTrimMemory(level: Int) {
+        super.onTrimMemory(level)
+
+        MemoryPressureManager.onTrimMemory(level)
+    }
+
+    override fun onLowMemory() {
+        super.onLowMemory()
+
+        MemoryPressureManager.onTrimMemory(ComponentCallbacks2.TRIM_MEMORY_COMPLETE)
+    }
 
-                registerForLocaleUpdates(this@FocusApplication)
-            }
+    private fun registerTrimmableCaches() {
+        MemoryPressureManager.register("html_templates", MemoryPressureManager.Priority.LOW,
+            object : MemoryPressureManager.Trimmable {
+                override fun trim(): Int = HtmlLoader.clearCache()
+            })
 
-            TelemetryWrapper.init(this@FocusApplication)
-            AdjustHelper.setupAdjustIfNeeded(this@FocusApplication)
+        MemoryPressureManager.register("localized_pages", MemoryPressureManager.Priority.LOW,
+            object : MemoryPressureManager.Trimmable {
+                override fun trim(): Int = LocalizedContent.clearCache()
+            })
 
-            visibilityLifeCycleCallback = VisibilityLifeCycleCallback(this@FocusApplication)
-            registerActivityLifecycleCallbacks(visibilityLifeCycleCallback)
+        MemoryPressureManager.register("localized_resources", MemoryPressureManager.Priority.LOW,
+            object : MemoryPressureManager.Trimmable {
+                override fun trim(): Int = Locales.clearLocalizedResourcesCache()
+            })
 
-            components.sessionManager.apply {
-                register(NotificationSessionObserver(this@FocusApplication))
-                register(TelemetrySessionObserver())
-                register(CleanupSessionObserver(this@FocusApplication))
-            }
+        MemoryPressureManager.register("search_engine_icons", MemoryPressureManager.Priority.LOW,
+            object : MemoryPressureManager.Trimmable {
+                override fun trim(): Int = SearchEngineIconStore.clearCache()
+            })
+
+        // GeckoView needs the saved state to restore a session. WebView can restore a tab from its URL
+        // alone, at the cost of losing the back/forward history of that tab.
+        if (!AppConstants.isGeckoBuild) {
+            MemoryPressureManager.register("saved_webview_state", MemoryPressureManager.Priority.HIGH,
+                object : MemoryPressureManager.Trimmable {
+                    override fun trim(): Int {
+                        val sessionManager = components.sessionManager
+                        val sessions = sessionManager.sessions.filter {
+                            it != sessionManager.selectedSession && it.savedWebViewState != null
+                        }
+                        sessions.forEach { it.savedWebViewState = null }
+                        return sessions.size
+                    }
+                })
         }
     }
 
-    private suspend fun loadExperiments() {
+    /**
+     * Create Fretboard and read the decisions of the last run from the snapshot. Parsing all
+     * experiments is deferred to a background task, unless there is no (valid) snapshot yet.
+     */
+    private fun loadExperiments() {
         val experimentsFile = File(filesDir, EXPERIMENTS_JSON_FILENAME)
         val experimentSource = KintoExperimentSource(
                 EXPERIMENTS_BASE_URL, EXPERIMENTS_BUCKET_NAME, EXPERIMENTS_COLLECTION_NAME)
-        fretboard = Fretboard(experimentSource, FlatFileExperimentStorage(experimentsFile))
-        fretboard.loadExperiments()
-        WebViewProvider.determineEngine(this@FocusApplication)
-        launch(IO) {
-            withTimeoutOrNull(FRETBOARD_BLOCKING_NETWORK_READ_TIMEOUT) {
-                fretboard.updateExperiments() // then update disk and memory from the network
-            }
+        experiments = Fretboard(experimentSource, FlatFileExperimentStorage(experimentsFile))
+
+        experimentSnapshot = ExperimentSnapshot.read(experimentSnapshotFile, BuildConfig.VERSION_CODE)
+
+        if (experimentSnapshot == null) {
+            ensureExperimentsLoaded()
+            refreshExperimentSnapshot()
         }
     }
 
+    @Synchronized
+    private fun ensureExperimentsLoaded() {
+        if (!isExperimentsLoaded) {
+            experiments.loadExperiments()
+            isExperimentsLoaded = true
+        }
+    }
+
+    /**
+     * Write the current experiment decisions (including overrides) to the snapshot that is read
+     * on the next start.
+     */
+    @WorkerThread
+    fun refreshExperimentSnapshot() {
+        val snapshot = ExperimentSnapshot(
+            knownExperimentDescriptors.associate { it.name to fretboard.isInExperiment(this, it) },
+            activeExperimentNames)
+
+        if (snapshot != ExperimentSnapshot.read(experimentSnapshotFile, BuildConfig.VERSION_CODE)) {
+            snapshot.write(experimentSnapshotFile, BuildConfig.VERSION_CODE)
+        }
+    }
+
+    private val experimentSnapshotFile: File
+        get() = File(filesDir, EXPERIMENT_SNAPSHOT_FILENAME)
+
     private fun enableStrictMode() {
         // Android/WebView sometimes commit strict mode violations, see e.g.
         // https://github.com/mozilla-mobile/focus-android/issues/660
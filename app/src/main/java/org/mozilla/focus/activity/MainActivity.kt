@@ -26,6 +26,7 @@ import org.mozilla.focus.fragment.UrlInputFragment
 import org.mozilla.focus.locale.LocaleAwareAppCompatActivity
 import org.mozilla.focus.session.ui.SessionsSheetFragment
 import org.mozilla.focus.settings.ExperimentsSettingsFragment
+import org.mozilla.focus.startup.StartupTrace
 import org.mozilla.focus.telemetry.SentryWrapper
 import org.mozilla.focus.telemetry.TelemetryWrapper
 import org.mozilla.focus.utils.AppConstants
@@ -46,6 +47,8 @@ open class MainActivity : LocaleAwareAppCompatActivity() {
         get() = components.sessionManager.selectedSessionOrThrow
 
     override fun onCreate(savedInstanceState: Bundle?) {
+        val traceStart = StartupTrace.begin()
+
         super.onCreate(savedInstanceState)
 
         if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.LOLLIPOP) {
@@ -77,6 +80,8 @@ open class MainActivity : LocaleAwareAppCompatActivity() {
                 .edit()
                 .putInt(getString(R.string.app_launch_count), launchCount + 1)
                 .apply()
+
+        StartupTrace.end("main_activity_create", traceStart)
     }
 
     private fun initViewModel() {
@@ -16,11 +16,10 @@ import android.view.ViewGroup
 import kotlinx.android.synthetic.main.fragment_autocomplete_add_domain.*
 import kotlinx.coroutines.experimental.android.UI
 import kotlinx.coroutines.experimental.launch
-import mozilla.components.browser.domains.CustomDomains
-import org.mozilla.focus.IO
 import org.mozilla.focus.R
 import org.mozilla.focus.settings.BaseSettingsFragment
 import org.mozilla.focus.telemetry.TelemetryWrapper
+import org.mozilla.focus.utils.TaskScheduler
 import org.mozilla.focus.utils.ViewUtils
 
 /**
@@ -63,11 +62,11 @@ class AutocompleteAddFragment : Fragment() {
                     .trim()
                     .toLowerCase()
 
-            launch(IO) {
-                val domains = CustomDomains.load(activity!!)
+            launch(TaskScheduler.userBlocking) {
                 val error = when {
                     domain.isEmpty() -> getString(R.string.preference_autocomplete_add_error)
-                    domains.contains(domain) -> getString(R.string.preference_autocomplete_duplicate_url_error)
+                    CustomDomainStore.contains(activity!!, domain) ->
+                        getString(R.string.preference_autocomplete_duplicate_url_error)
                     else -> null
                 }
 
@@ -87,8 +86,8 @@ class AutocompleteAddFragment : Fragment() {
     }
 
     private fun saveDomainAndClose(context: Context, domain: String) {
-        launch(IO) {
-            CustomDomains.add(context, domain)
+        launch(TaskScheduler.userBlocking) {
+            CustomDomainStore.add(context, domain)
 
             TelemetryWrapper.saveAutocompleteDomainEvent(TelemetryWrapper.AutoCompleteEventSource.SETTINGS)
         }
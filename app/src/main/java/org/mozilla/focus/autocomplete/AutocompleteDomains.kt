@@ -0,0 +1,86 @@
+/* This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/. */
+
+package org.mozilla.focus.autocomplete
+
+import android.content.Context
+import android.support.annotation.WorkerThread
+import mozilla.components.browser.domains.Domains
+import org.mozilla.focus.utils.TaskScheduler
+import java.util.Locale
+
+/**
+ * The domains the URL bar autocompletes: the custom domains of the user and the domains shipped
+ * with the app. Both lists are indexed once in the background; changes to the custom domains are
+ * applied to the index in place by [CustomDomainStore].
+ */
+object AutocompleteDomains {
+    const val SOURCE_CUSTOM = "custom"
+    const val SOURCE_SHIPPED = "default"
+
+    private const val HTTPS = "https://"
+    private const val HTTP = "http://"
+
+    private val custom = DomainIndex(SOURCE_CUSTOM)
+    private val shipped = DomainIndex(SOURCE_SHIPPED)
+
+    private var customLoaded = false
+    // The shipped list depends on the countries of the locale.
+    private var shippedLocale: Locale? = null
+
+    /**
+     * Build the indexes if that hasn't happened yet (or the locale has changed since).
+     */
+    fun initialize(context: Context) {
+        val applicationContext = context.applicationContext
+        TaskScheduler.execute(TaskScheduler.Lane.USER_BLOCKING, Runnable { load(applicationContext) })
+    }
+
+    @WorkerThread
+    @Synchronized
+    private fun load(context: Context) {
+        if (!customLoaded) {
+            // Changes made while we are building the index are applied to it afterwards.
+            CustomDomainStore.read(context) { custom.set(it) }
+            customLoaded = true
+        }
+
+        val locale = Locale.getDefault()
+        if (shippedLocale != locale) {
+            shipped.set(Domains.load(context))
+            shippedLocale = locale
+        }
+    }
+
+    fun autocomplete(rawText: String, useCustomDomains: Boolean, useShippedDomains: Boolean): DomainMatch? {
+        val query = rawText.toLowerCase(Locale.US)
+        val offset = when {
+            query.startsWith(HTTPS) -> HTTPS.length
+            query.startsWith(HTTP) -> HTTP.length
+            else -> 0
+        }
+
+        if (useCustomDomains) {
+            custom.find(rawText, query, offset)?.let { return it }
+        }
+
+        if (useShippedDomains) {
+            shipped.find(rawText, query, offset)?.let { return it }
+        }
+
+        return null
+    }
+
+    fun onCustomDomainAdded(domain: String) {
+        custom.add(domain)
+    }
+
+    fun onCustomDomainsRemoved(domains: Collection<String>) {
+        custom.remove(domains)
+    }
+
+    fun onCustomDomainsSwapped(first: Int, second: Int) {
+        custom.swap(first, second)
+    }
+}
@@ -26,12 +26,11 @@ import kotlinx.android.synthetic.main.fragment_autocomplete_customdomains.*
 import kotlinx.coroutines.experimental.android.UI
 import kotlinx.coroutines.experimental.async
 import kotlinx.coroutines.experimental.launch
-import mozilla.components.browser.domains.CustomDomains
-import org.mozilla.focus.IO
 import org.mozilla.focus.R
 import org.mozilla.focus.settings.BaseSettingsFragment
 import org.mozilla.focus.telemetry.TelemetryWrapper
 import java.util.Collections
+import org.mozilla.focus.utils.TaskScheduler
 import org.mozilla.focus.utils.ViewUtils
 
 typealias DomainFormatter = (String) -> String
@@ -168,7 +167,7 @@ open class AutocompleteListFragment : Fragment() {
 
         fun refresh(context: Context, body: (() -> Unit)? = null) {
             launch(UI) {
-                val updatedDomains = async { CustomDomains.load(context) }.await()
+                val updatedDomains = async { CustomDomainStore.load(context) }.await()
 
                 domains.clear()
                 domains.addAll(updatedDomains)
@@ -223,8 +222,8 @@ open class AutocompleteListFragment : Fragment() {
             Collections.swap(domains, from, to)
             notifyItemMoved(from, to)
 
-            launch(IO) {
-                CustomDomains.save(activity!!.applicationContext, domains)
+            launch(TaskScheduler.deferrable) {
+                CustomDomainStore.swap(activity!!.applicationContext, from, to)
 
                 TelemetryWrapper.reorderAutocompleteDomainEvent(from, to)
             }
@@ -12,7 +12,6 @@ import kotlinx.android.synthetic.main.fragment_autocomplete_customdomains.*
 import kotlinx.coroutines.experimental.android.UI
 import kotlinx.coroutines.experimental.async
 import kotlinx.coroutines.experimental.launch
-import mozilla.components.browser.domains.CustomDomains
 import org.mozilla.focus.R
 import org.mozilla.focus.settings.BaseSettingsFragment
 import org.mozilla.focus.telemetry.TelemetryWrapper
@@ -35,7 +34,7 @@ class AutocompleteRemoveFragment : AutocompleteListFragment() {
         if (domains.isNotEmpty()) {
             launch(UI) {
                 async {
-                    CustomDomains.remove(context, domains)
+                    CustomDomainStore.remove(context, domains)
 
                     TelemetryWrapper.removeAutocompleteDomainsEvent(domains.size)
                 }.await()
@@ -0,0 +1,261 @@
+/* This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/. */
+
+package org.mozilla.focus.autocomplete
+
+import android.content.Context
+import android.support.annotation.VisibleForTesting
+import android.support.annotation.WorkerThread
+import android.util.AtomicFile
+import android.util.Log
+import mozilla.components.browser.domains.CustomDomains
+import java.io.DataInputStream
+import java.io.DataOutputStream
+import java.io.EOFException
+import java.io.File
+import java.io.FileOutputStream
+import java.io.IOException
+import java.util.Collections
+
+/**
+ * The custom autocomplete domains of the user.
+ *
+ * Instead of rewriting the whole list for every change (like [CustomDomains] does with a single
+ * SharedPreferences value) every change is appended to a log file: adding or removing a domain and
+ * swapping two domains when the list is reordered. The log is replayed into memory once and
+ * compacted into a plain list of additions when it has grown much larger than the list itself.
+ *
+ * Domains added, removed or reordered here are updated in the [AutocompleteDomains] index, too.
+ */
+@WorkerThread
+object CustomDomainStore {
+    private const val LOG_TAG = "CustomDomainStore"
+    private const val FILE_NAME = "custom_domains.log"
+
+    private const val OP_ADD: Byte = 1
+    private const val OP_REMOVE: Byte = 2
+    private const val OP_SWAP: Byte = 3
+
+    private const val COMPACTION_MIN_RECORDS = 64
+
+    private var domains: MutableList<String>? = null
+    private val domainSet = HashSet<String>()
+    private var records = 0
+
+    @Synchronized
+    fun load(context: Context): List<String> = ArrayList(domains(context))
+
+    /**
+     * Run [block] with the current list while no changes can happen.
+     */
+    @Synchronized
+    fun <T> read(context: Context, block: (List<String>) -> T): T =
+        block(Collections.unmodifiableList(domains(context)))
+
+    @Synchronized
+    fun contains(context: Context, domain: String): Boolean {
+        domains(context)
+        return domain in domainSet
+    }
+
+    /**
+     * Add a domain to the end of the list. Returns false if the domain is already in the list.
+     */
+    @Synchronized
+    fun add(context: Context, domain: String): Boolean {
+        val domains = domains(context)
+        if (!domainSet.add(domain)) {
+            return false
+        }
+
+        domains.add(domain)
+        append(context, 1) {
+            writeByte(OP_ADD.toInt())
+            writeUTF(domain)
+        }
+
+        AutocompleteDomains.onCustomDomainAdded(domain)
+        return true
+    }
+
+    @Synchronized
+    fun remove(context: Context, domainsToRemove: Collection<String>) {
+        val domains = domains(context)
+
+        val removed = domainsToRemove.filter { domainSet.remove(it) }
+        if (removed.isEmpty()) {
+            return
+        }
+
+        val removedSet = removed.toHashSet()
+        domains.removeAll { it in removedSet }
+        append(context, removed.size) {
+            removed.forEach {
+                writeByte(OP_REMOVE.toInt())
+                writeUTF(it)
+            }
+        }
+
+        AutocompleteDomains.onCustomDomainsRemoved(removed)
+    }
+
+    @Synchronized
+    fun swap(context: Context, first: Int, second: Int) {
+        val domains = domains(context)
+        if (first !in domains.indices || second !in domains.indices) {
+            return
+        }
+
+        Collections.swap(domains, first, second)
+        append(context, 1) {
+            writeByte(OP_SWAP.toInt())
+            writeInt(first)
+            writeInt(second)
+        }
+
+        AutocompleteDomains.onCustomDomainsSwapped(first, second)
+    }
+
+    @JvmStatic
+    @Synchronized
+    fun clear(context: Context) {
+        val domains = domains(context)
+        AutocompleteDomains.onCustomDomainsRemoved(ArrayList(domains))
+
+        domains.clear()
+        domainSet.clear()
+        compact(context)
+    }
+
+    @VisibleForTesting
+    @Synchronized
+    internal fun reset() {
+        domains = null
+        domainSet.clear()
+        records = 0
+    }
+
+    private fun domains(context: Context): MutableList<String> {
+        domains?.let { return it }
+
+        val file = file(context)
+        val isMigration = !file.exists()
+        val loaded = ArrayList<String>()
+        val isLogComplete = if (!isMigration) {
+            replay(file, loaded)
+        } else {
+            // Migrate the list of previous versions, stored in SharedPreferences.
+            loaded.addAll(CustomDomains.load(context).distinct())
+            false
+        }
+
+        domains = loaded
+        domainSet.addAll(loaded)
+
+        // Write a new log after a migration or a torn record: Records appended after a torn one
+        // would never be read.
+        if (!isLogComplete && compact(context) && isMigration && loaded.isNotEmpty()) {
+            // The log has the only copy now. Domains removed later must not stay in the preferences.
+            CustomDomains.save(context, emptyList())
+        }
+
+        return loaded
+    }
+
+    /**
+     * Replay the log into [domains]. Returns false if the log couldn't be read to the end.
+     */
+    private fun replay(file: File, domains: MutableList<String>): Boolean {
+        records = 0
+
+        return try {
+            DataInputStream(AtomicFile(file).openRead().buffered()).use { input ->
+                while (true) {
+                    val op = try {
+                        input.readByte()
+                    } catch (e: EOFException) {
+                        break
+                    }
+
+                    when (op) {
+                        OP_ADD -> domains.add(input.readUTF())
+                        OP_REMOVE -> domains.remove(input.readUTF())
+                        OP_SWAP -> {
+                            val first = input.readInt()
+                            val second = input.readInt()
+                            if (first in domains.indices && second in domains.indices) {
+                                Collections.swap(domains, first, second)
+                            }
+                        }
+                        else -> throw IOException("Unknown record type $op")
+                    }
+
+                    records++
+                }
+            }
+            true
+        } catch (e: IOException) {
+            // A truncated last record (e.g. the process died while writing) is lost, everything
+            // before it is still valid.
+            Log.w(LOG_TAG, "Could not read all custom domains", e)
+            false
+        }
+    }
+
+    /**
+     * Append [recordCount] records, written by [write], to the log.
+     */
+    private fun append(context: Context, recordCount: Int, write: DataOutputStream.() -> Unit) {
+        val domains = domains ?: return
+
+        if (records >= COMPACTION_MIN_RECORDS && records > 2 * domains.size) {
+            compact(context)
+            return
+        }
+
+        try {
+            DataOutputStream(FileOutputStream(file(context), true).buffered()).use {
+                it.write()
+                records += recordCount
+            }
+        } catch (e: IOException) {
+            Log.w(LOG_TAG, "Could not write custom domains", e)
+        }
+    }
+
+    /**
+     * Replace the log with one addition per domain. The in-memory list is already up to date.
+     * Returns false if the log couldn't be written.
+     */
+    private fun compact(context: Context): Boolean {
+        val domains = domains ?: return false
+        val file = AtomicFile(file(context))
+
+        val stream = try {
+            file.startWrite()
+        } catch (e: IOException) {
+            Log.w(LOG_TAG, "Could not write custom domains", e)
+            return false
+        }
+
+        return try {
+            DataOutputStream(stream.buffered()).apply {
+                domains.forEach {
+                    writeByte(OP_ADD.toInt())
+                    writeUTF(it)
+                }
+                flush()
+            }
+            file.finishWrite(stream)
+            records = domains.size
+            true
+        } catch (e: IOException) {
+            Log.w(LOG_TAG, "Could not write custom domains", e)
+            file.failWrite(stream)
+            false
+        }
+    }
+
+    private fun file(context: Context) = File(context.filesDir, FILE_NAME)
+}
@@ -0,0 +1,260 @@
+/* This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/. */
+
+package org.mozilla.focus.autocomplete
+
+import java.util.Collections
+import java.util.Locale
+
+/**
+ * The autocomplete suggestion for the text in the URL bar.
+ *
+ * @property text The typed text followed by the completion.
+ * @property url The URL to load if the suggestion is committed.
+ * @property source The list the domain comes from.
+ * @property totalItems The size of that list.
+ */
+class DomainMatch(val text: String, val url: String, val source: String, val totalItems: Int)
+
+/**
+ * A prefix index over a list of domains.
+ *
+ * The hosts are kept in a sorted array, so finding the domains that start with the typed text is a
+ * binary search instead of a scan over the whole list. If several domains match, the one that comes
+ * first in the original list wins (like it does with the list based lookup).
+ *
+ * The domains that start with the typed text are a range of the sorted array. A short prefix can
+ * match most of the list, so instead of scanning that range we keep the smallest list position of
+ * every range in a segment tree: a lookup is two binary searches and one tree query.
+ *
+ * The index is updated in place when domains are added, removed or reordered. Lookups don't
+ * allocate anything: the typed text is compared with the hosts region by region.
+ */
+class DomainIndex(private val source: String) {
+    private class Entry(val raw: String, val host: String, val url: String) {
+        var rank = 0
+    }
+
+    // Entries in the order of the original list.
+    private val byRank = ArrayList<Entry>()
+    // The same entries sorted by host.
+    private val byHost = ArrayList<Entry>()
+    // Segment tree over the ranks of byHost: the leaf of byHost[i] is at byHost.size + i and every
+    // other node holds the smallest rank of its two children.
+    private var minRanks = IntArray(0)
+
+    val size: Int
+        @Synchronized get() = byRank.size
+
+    @Synchronized
+    fun set(domains: List<String>) {
+        byRank.clear()
+        domains.mapTo(byRank) { createEntry(it) }
+        renumber(0, byRank.size - 1)
+
+        byHost.clear()
+        byHost.addAll(byRank)
+        byHost.sortBy { it.host }
+        rebuildMinRanks()
+    }
+
+    /**
+     * Add a domain to the end of the list. Adding a domain that is already in the list does
+     * nothing.
+     */
+    @Synchronized
+    fun add(domain: String) {
+        if (byRank.any { it.raw == domain }) {
+            return
+        }
+
+        val entry = createEntry(domain)
+        entry.rank = byRank.size
+        byRank.add(entry)
+        byHost.add(lowerBound(entry.host, 0, entry.host.length), entry)
+        rebuildMinRanks()
+    }
+
+    @Synchronized
+    fun remove(domains: Collection<String>) {
+        val removed = domains.toHashSet()
+        if (byRank.removeAll { it.raw in removed }) {
+            byHost.removeAll { it.raw in removed }
+            renumber(0, byRank.size - 1)
+            rebuildMinRanks()
+        }
+    }
+
+    /**
+     * Swap two domains in the list (that's how the list of custom domains is reordered).
+     */
+    @Synchronized
+    fun swap(first: Int, second: Int) {
+        if (first !in byRank.indices || second !in byRank.indices) {
+            return
+        }
+
+        Collections.swap(byRank, first, second)
+        byRank[first].rank = first
+        byRank[second].rank = second
+        updateMinRank(byRank[first])
+        updateMinRank(byRank[second])
+    }
+
+    /**
+     * Find the first domain (in list order) that completes [query], the lower case version of
+     * [rawText]. [offset] is the length of the scheme the user has typed, the rest of the query is
+     * matched against "www.host" and "host".
+     */
+    @Synchronized
+    fun find(rawText: String, query: String, offset: Int): DomainMatch? {
+        if (byRank.isEmpty()) {
+            return null
+        }
+
+        val remaining = query.length - offset
+
+        if (remaining <= WWW.length && WWW.regionMatches(0, query, offset, remaining)) {
+            // Every domain completes "www.": Pick the first one.
+            val entry = byRank[0]
+            return DomainMatch(rawText + WWW.substring(remaining) + entry.host, entry.url, source, byRank.size)
+        }
+
+        val hostOffset = if (query.regionMatches(offset, WWW, 0, WWW.length)) offset + WWW.length else offset
+        val prefixLength = query.length - hostOffset
+
+        val from = lowerBound(query, hostOffset, prefixLength)
+        val to = endOfMatches(from, query, hostOffset, prefixLength)
+        if (from == to) {
+            return null
+        }
+
+        val best = byRank[minRank(from, to)]
+        return DomainMatch(rawText + best.host.substring(prefixLength), best.url, source, byRank.size)
+    }
+
+    /**
+     * Index of the first entry whose host is not smaller than the given region of [text].
+     */
+    private fun lowerBound(text: String, offset: Int, length: Int): Int {
+        var low = 0
+        var high = byHost.size
+
+        while (low < high) {
+            val middle = (low + high) ushr 1
+            if (compare(byHost[middle].host, text, offset, length) < 0) {
+                low = middle + 1
+            } else {
+                high = middle
+            }
+        }
+
+        return low
+    }
+
+    /**
+     * Index of the first entry from [from] on whose host doesn't start with the given region of
+     * [text]. The matching hosts follow each other in the sorted list.
+     */
+    private fun endOfMatches(from: Int, text: String, offset: Int, length: Int): Int {
+        var low = from
+        var high = byHost.size
+
+        while (low < high) {
+            val middle = (low + high) ushr 1
+            if (byHost[middle].host.regionMatches(0, text, offset, length)) {
+                low = middle + 1
+            } else {
+                high = middle
+            }
+        }
+
+        return low
+    }
+
+    private fun rebuildMinRanks() {
+        val size = byHost.size
+        minRanks = IntArray(2 * size)
+
+        for (i in 0 until size) {
+            minRanks[size + i] = byHost[i].rank
+        }
+        for (node in size - 1 downTo 1) {
+            minRanks[node] = Math.min(minRanks[2 * node], minRanks[2 * node + 1])
+        }
+    }
+
+    private fun updateMinRank(entry: Entry) {
+        // Several domains can have the same host (e.g. with and without "https://").
+        var hostIndex = lowerBound(entry.host, 0, entry.host.length)
+        while (byHost[hostIndex] !== entry) {
+            hostIndex++
+        }
+
+        var node = byHost.size + hostIndex
+        minRanks[node] = entry.rank
+        while (node > 1) {
+            node = node ushr 1
+            minRanks[node] = Math.min(minRanks[2 * node], minRanks[2 * node + 1])
+        }
+    }
+
+    /**
+     * The smallest rank of the entries from [from] (inclusive) to [to] (exclusive) of [byHost].
+     */
+    private fun minRank(from: Int, to: Int): Int {
+        var result = Int.MAX_VALUE
+        var low = from + byHost.size
+        var high = to + byHost.size
+
+        while (low < high) {
+            if ((low and 1) != 0) {
+                result = Math.min(result, minRanks[low++])
+            }
+            if ((high and 1) != 0) {
+                result = Math.min(result, minRanks[--high])
+            }
+            low = low ushr 1
+            high = high ushr 1
+        }
+
+        return result
+    }
+
+    private fun renumber(from: Int, to: Int) {
+        for (rank in from..to) {
+            byRank[rank].rank = rank
+        }
+    }
+
+    companion object {
+        private const val WWW = "www."
+
+        private val SCHEME = Regex("^https?://")
+
+        private fun createEntry(domain: String): Entry {
+            val scheme = SCHEME.find(domain)?.value
+            val withoutScheme = if (scheme != null) domain.substring(scheme.length) else domain
+            val hasWww = withoutScheme.startsWith(WWW)
+            val host = (if (hasWww) withoutScheme.substring(WWW.length) else withoutScheme).toLowerCase(Locale.US)
+
+            return Entry(domain, host, (scheme ?: "http://") + (if (hasWww) WWW else "") + host)
+        }
+
+        /**
+         * Compares [host] with the region of [text] starting at [offset] without creating a
+         * substring. A host that starts with the region compares as greater or equal.
+         */
+        private fun compare(host: String, text: String, offset: Int, length: Int): Int {
+            val common = Math.min(host.length, length)
+            for (i in 0 until common) {
+                val difference = host[i] - text[offset + i]
+                if (difference != 0) {
+                    return difference
+                }
+            }
+            return host.length - length
+        }
+    }
+}
@@ -20,6 +20,7 @@ import org.mozilla.focus.utils.HtmlLoader;
 import org.mozilla.focus.utils.SupportUtils;
 import org.mozilla.focus.web.IWebView;
 
+import java.util.Locale;
 import java.util.Map;
 
 public class LocalizedContent {
@@ -28,6 +29,9 @@ public class LocalizedContent {
     public static final String URL_ABOUT = "focus:about";
     public static final String URL_RIGHTS = "focus:rights";
 
+    // Rendered pages only depend on the locale and the layout direction: (page, locale, direction) -> html
+    private static final Map<String, String> renderedPageCache = new ArrayMap<>();
+
     public static boolean handleInternalContent(String url, IWebView webView, Context context) {
         if (URL_ABOUT.equals(url)) {
             loadAbout(webView, context);
@@ -46,6 +50,13 @@ public class LocalizedContent {
     private static void loadAbout(@NonNull final IWebView webView, Context context) {
         final Resources resources = Locales.getLocalizedResources(context);
 
+        final String cacheKey = getCacheKey(URL_ABOUT, resources, context);
+        final String cachedData = getCachedPage(cacheKey);
+        if (cachedData != null) {
+            webView.loadData("file:///android_res/raw/about.html", cachedData, "text/html", "UTF-8", URL_ABOUT);
+            return;
+        }
+
         final Map<String, String> substitutionMap = new ArrayMap<>();
         final String appName = context.getResources().getString(R.string.app_name);
         final String learnMoreURL = SupportUtils.INSTANCE.getManifestoURL();
@@ -71,6 +82,7 @@ public class LocalizedContent {
         putLayoutDirectionIntoMap(substitutionMap, context);
 
         final String data = HtmlLoader.loadResourceFile(context, R.raw.about, substitutionMap);
+        putCachedPage(cacheKey, data);
 
         webView.loadData("file:///android_res/raw/about.html", data, "text/html", "UTF-8", URL_ABOUT);
     }
@@ -81,6 +93,13 @@ public class LocalizedContent {
     private static void loadRights(@NonNull final IWebView webView, Context context) {
         final Resources resources = Locales.getLocalizedResources(context);
 
+        final String cacheKey = getCacheKey(URL_RIGHTS, resources, context);
+        final String cachedData = getCachedPage(cacheKey);
+        if (cachedData != null) {
+            webView.loadData("file:///android_asset/rights.html", cachedData, "text/html", "UTF-8", URL_RIGHTS);
+            return;
+        }
+
         final Map<String, String> substitutionMap = new ArrayMap<>();
 
         final String appName = context.getResources().getString(R.string.app_name);
@@ -108,21 +127,55 @@ public class LocalizedContent {
         putLayoutDirectionIntoMap(substitutionMap, context);
 
         final String data = HtmlLoader.loadResourceFile(context, R.raw.rights, substitutionMap);
+        putCachedPage(cacheKey, data);
         webView.loadData("file:///android_asset/rights.html", data, "text/html", "UTF-8", URL_RIGHTS);
     }
 
     private static void putLayoutDirectionIntoMap(Map<String, String> substitutionMap, Context context) {
+        substitutionMap.put("%dir%", getLayoutDirection(context));
+    }
+
+    private static String getLayoutDirection(Context context) {
         final int layoutDirection = context.getResources().getConfiguration().getLayoutDirection();
-        final String direction;
 
         if (layoutDirection == View.LAYOUT_DIRECTION_LTR) {
-            direction = "ltr";
+            return "ltr";
         } else if (layoutDirection == View.LAYOUT_DIRECTION_RTL) {
-            direction = "rtl";
+            return "rtl";
         } else {
-            direction = "auto";
+            return "auto";
+        }
+    }
+
+    private static String getCacheKey(String page, Resources localizedResources, Context context) {
+        @SuppressWarnings("deprecation") final Locale locale = localizedResources.getConfiguration().locale;
+        final String languageTag = locale != null ? locale.toLanguageTag() : "";
+
+        return page + "|" + languageTag + "|" + getLayoutDirection(context);
+    }
+
+    private static String getCachedPage(String cacheKey) {
+        synchronized (renderedPageCache) {
+            return renderedPageCache.get(cacheKey);
+        }
+    }
+
+    private static void putCachedPage(String cacheKey, String data) {
+        synchronized (renderedPageCache) {
+            renderedPageCache.put(cacheKey, data);
         }
+    }
 
-        substitutionMap.put("%dir%", direction);
+    /**
+     * Drop all rendered pages. They will be rendered again on demand.
+     *
+     * @return The number of removed pages.
+     */
+    public static int clearCache() {
+        synchronized (renderedPageCache) {
+            final int removed = renderedPageCache.size();
+            renderedPageCache.clear();
+            return removed;
+        }
     }
 }
@@ -77,7 +77,7 @@ import org.mozilla.focus.session.SessionCallbackProxy
 import org.mozilla.focus.session.ui.SessionsSheetFragment
 import org.mozilla.focus.telemetry.TelemetryWrapper
 import org.mozilla.focus.utils.AppConstants
-import org.mozilla.focus.utils.Browsers
+import org.mozilla.focus.utils.BrowsersCache
 import org.mozilla.focus.utils.Features
 import org.mozilla.focus.utils.StatusBarUtils
 import org.mozilla.focus.utils.SupportUtils
@@ -993,7 +993,7 @@ class BrowserFragment : WebFragment(), LifecycleObserver, View.OnClickListener,
             R.id.settings -> (activity as LocaleAwareAppCompatActivity).openPreferences()
 
             R.id.open_default -> {
-                val browsers = Browsers(requireContext(), url)
+                val browsers = BrowsersCache.get(requireContext(), url)
 
                 val defaultBrowser = browsers.defaultBrowser
                     ?: // We only add this menu item when a third party default exists, in
@@ -1012,7 +1012,7 @@ class BrowserFragment : WebFragment(), LifecycleObserver, View.OnClickListener,
             }
 
             R.id.open_select_browser -> {
-                val browsers = Browsers(requireContext(), url)
+                val browsers = BrowsersCache.get(requireContext(), url)
 
                 val apps = browsers.installedBrowsers
                 val store = if (browsers.hasFirefoxBrandedBrowserInstalled())
@@ -1338,6 +1338,9 @@ class BrowserFragment : WebFragment(), LifecycleObserver, View.OnClickListener,
 
         override fun onUrlChanged(session: Session, url: String) {
             urlView?.text = UrlUtils.stripUserInfo(url)
+
+            // The menu shows "Open in..." items for the browsers that can open this URL.
+            context?.let { BrowsersCache.prefetch(it, url) }
         }
 
         override fun onProgress(session: Session, progress: Int) {
@@ -24,11 +24,14 @@ import android.view.ViewGroup
 import android.webkit.URLUtil
 import android.widget.FrameLayout
 import android.widget.TextView
+import android.widget.Toast
 import kotlinx.android.synthetic.main.fragment_urlinput.*
 import kotlinx.android.synthetic.main.fragment_urlinput.view.*
+import kotlinx.coroutines.experimental.CoroutineStart
+import kotlinx.coroutines.experimental.Job
+import kotlinx.coroutines.experimental.android.UI
+import kotlinx.coroutines.experimental.async
 import kotlinx.coroutines.experimental.launch
-import mozilla.components.browser.domains.CustomDomains
-import mozilla.components.browser.domains.DomainAutoCompleteProvider
 import mozilla.components.browser.session.Session
 import mozilla.components.support.utils.ThreadUtils
 import mozilla.components.ui.autocomplete.InlineAutocompleteEditText
@@ -36,13 +39,19 @@ import mozilla.components.ui.autocomplete.InlineAutocompleteEditText.Autocomplet
 import org.mozilla.focus.R
 import org.mozilla.focus.R.string.pref_key_homescreen_tips
 import org.mozilla.focus.R.string.teaser
+import org.mozilla.focus.autocomplete.AutocompleteDomains
+import org.mozilla.focus.autocomplete.CustomDomainStore
 import org.mozilla.focus.ext.isSearch
 import org.mozilla.focus.ext.requireComponents
 import org.mozilla.focus.locale.LocaleAwareAppCompatActivity
 import org.mozilla.focus.locale.LocaleAwareFragment
+import org.mozilla.focus.memory.MemoryPressureManager
 import org.mozilla.focus.menu.home.HomeMenu
 import org.mozilla.focus.searchsuggestions.SearchSuggestionsViewModel
 import org.mozilla.focus.searchsuggestions.ui.SearchSuggestionsFragment
+import org.mozilla.focus.startup.StartupTrace
+import org.mozilla.focus.telemetry.KeystrokeTimings
+import org.mozilla.focus.telemetry.NavigationTimings
 import org.mozilla.focus.telemetry.TelemetryWrapper
 import org.mozilla.focus.tips.Tip
 import org.mozilla.focus.tips.TipManager
@@ -51,6 +60,7 @@ import org.mozilla.focus.utils.Features
 import org.mozilla.focus.utils.Settings
 import org.mozilla.focus.utils.StatusBarUtils
 import org.mozilla.focus.utils.SupportUtils
+import org.mozilla.focus.utils.TaskScheduler
 import org.mozilla.focus.utils.UrlUtils
 import org.mozilla.focus.utils.ViewUtils
 import org.mozilla.focus.utils.OneShotOnPreDrawListener
@@ -75,6 +85,7 @@ class UrlInputFragment :
         val FRAGMENT_TAG = "url_input"
 
         private const val duckDuckGo = "DuckDuckGo"
+        private const val TRIM_MEMORY_TRIGGER = "focus:trim:"
 
         private val ARGUMENT_ANIMATION = "animation"
         private val ARGUMENT_X = "x"
@@ -137,7 +148,9 @@ class UrlInputFragment :
         }
     }
 
-    private val autoCompleteProvider: DomainAutoCompleteProvider = DomainAutoCompleteProvider()
+    private var useCustomDomains = false
+    private var useShippedDomains = false
+    private var autocompleteJob: Job? = null
     private var displayedPopupMenu: HomeMenu? = null
 
     @Volatile
@@ -188,10 +201,9 @@ class UrlInputFragment :
 
         activity?.let {
             val settings = Settings.getInstance(it.applicationContext)
-            val useCustomDomains = settings.shouldAutocompleteFromCustomDomainList()
-            val useShippedDomains = settings.shouldAutocompleteFromShippedDomainList()
-            autoCompleteProvider.initialize(it.applicationContext, useShippedDomains,
-                useCustomDomains)
+            useCustomDomains = settings.shouldAutocompleteFromCustomDomainList()
+            useShippedDomains = settings.shouldAutocompleteFromShippedDomainList()
+            AutocompleteDomains.initialize(it.applicationContext)
         }
 
         StatusBarUtils.getStatusBarHeight(keyboardLinearLayout) {
@@ -270,7 +282,9 @@ class UrlInputFragment :
     }
 
     override fun onCreateView(inflater: LayoutInflater, container: ViewGroup?, savedInstanceState: Bundle?):
-        View? = inflater.inflate(R.layout.fragment_urlinput, container, false)
+        View? = StartupTrace.trace("url_input_inflate") {
+            inflater.inflate(R.layout.fragment_urlinput, container, false)
+        }
 
     override fun onViewCreated(view: View, savedInstanceState: Bundle?) {
         listOf(dismissView, clearView).forEach { it.setOnClickListener(this) }
@@ -443,10 +457,9 @@ class UrlInputFragment :
     private fun addUrlToAutocomplete(url: String) {
         var duplicateURL = false
         val job = launch {
-            duplicateURL = CustomDomains.load(requireContext()).contains(url)
+            duplicateURL = !CustomDomainStore.add(requireContext(), url)
 
             if (duplicateURL) return@launch
-            CustomDomains.add(requireContext(), url)
 
             TelemetryWrapper.saveAutocompleteDomainEvent(TelemetryWrapper.AutoCompleteEventSource.QUICK_ADD)
         }
@@ -646,6 +659,7 @@ class UrlInputFragment :
 
             if (handleExperimentsTrigger(input)) return
             if (handleL10NTrigger(input)) return
+            if (handleTrimMemoryTrigger(input)) return
 
             val (isUrl, url, searchTerms) = normalizeUrlAndSearchTerms(input)
 
@@ -674,6 +688,22 @@ class UrlInputFragment :
         return triggerHandled
     }
 
+    /**
+     * Simulate memory pressure in dev builds: "focus:trim:<level>" with one of the TRIM_MEMORY_*
+     * levels of ComponentCallbacks2, e.g. "focus:trim:80".
+     */
+    private fun handleTrimMemoryTrigger(input: String): Boolean {
+        if (!AppConstants.isDevBuild || !input.startsWith(TRIM_MEMORY_TRIGGER)) return false
+
+        val level = input.substring(TRIM_MEMORY_TRIGGER.length).toIntOrNull() ?: return false
+        val freed = MemoryPressureManager.onTrimMemory(level)
+
+        Toast.makeText(context, "Trimmed: $freed", Toast.LENGTH_LONG).show()
+
+        clear()
+        return true
+    }
+
     private fun handleExperimentsTrigger(input: String): Boolean {
         if (input == "focus:test") {
             model?.showExperiments()
@@ -718,6 +748,8 @@ class UrlInputFragment :
     }
 
     private fun openUrl(url: String, searchTerms: String?) {
+        NavigationTimings.markUrlBarSubmit()
+
         if (!searchTerms.isNullOrEmpty()) {
             session?.searchTerms = searchTerms!!
         }
@@ -758,10 +790,9 @@ class UrlInputFragment :
             return
         }
 
-        view?.let {
-            val result = autoCompleteProvider.autocomplete(searchText)
-            view.applyAutocompleteResult(AutocompleteResult(result.text, result.source, result.size, { result.url }))
-        }
+        val start = System.nanoTime()
+
+        view?.let { filterAutocomplete(searchText, it, start) }
 
         searchSuggestionsViewModel.setSearchQuery(searchText)
 
@@ -785,6 +816,39 @@ class UrlInputFragment :
             searchViewContainer?.visibility = View.VISIBLE
             addToAutoComplete?.visibility = View.GONE
         }
+
+        KeystrokeTimings.recordMainThread(System.nanoTime() - start)
+    }
+
+    /**
+     * Look up the autocomplete result in the background. Only the result of the newest keystroke
+     * is applied, a pending lookup is cancelled by the next keystroke.
+     */
+    private fun filterAutocomplete(searchText: String, view: InlineAutocompleteEditText, start: Long) {
+        autocompleteJob?.let {
+            if (it.isActive) {
+                it.cancel()
+                KeystrokeTimings.recordDroppedResult()
+            }
+        }
+
+        val useCustomDomains = useCustomDomains
+        val useShippedDomains = useShippedDomains
+
+        autocompleteJob = launch(UI, CoroutineStart.UNDISPATCHED) {
+            val result = async(TaskScheduler.userBlocking) {
+                AutocompleteDomains.autocomplete(searchText, useCustomDomains, useShippedDomains)
+            }.await()
+
+            if (isVisible) {
+                view.applyAutocompleteResult(if (result != null) {
+                    AutocompleteResult(result.text, result.source, result.totalItems, { result.url })
+                } else {
+                    AutocompleteResult("", "", 0, { "" })
+                })
+                KeystrokeTimings.recordResult(System.nanoTime() - start)
+            }
+        }
     }
 
     override fun onSharedPreferenceChanged(sharedPreferences: SharedPreferences, key: String) {
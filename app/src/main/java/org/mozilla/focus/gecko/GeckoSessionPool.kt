@@ -0,0 +1,95 @@
+/* This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/. */
+
+package org.mozilla.focus.gecko
+
+import android.os.Looper
+import android.support.annotation.UiThread
+import org.mozilla.geckoview.GeckoRuntime
+import org.mozilla.geckoview.GeckoSession
+import org.mozilla.geckoview.GeckoSessionSettings
+import java.util.ArrayDeque
+
+/**
+ * A small pool of already opened private mode sessions. Opening a session is the most expensive part
+ * of creating a tab, so we do it ahead of time whenever the main thread is idle.
+ *
+ * GeckoSession needs to be opened on the main thread. All methods need to be called from there.
+ */
+class GeckoSessionPool(private val size: Int = DEFAULT_SIZE) {
+    private val sessions = ArrayDeque<GeckoSession>()
+    private var refillScheduled = false
+    // Incremented by clear(): A refill scheduled before that doesn't open any more sessions.
+    private var generation = 0
+
+    /**
+     * Take an opened session from the pool or return null if the pool is empty. The pool will be
+     * refilled the next time the main thread is idle.
+     */
+    @UiThread
+    fun take(runtime: GeckoRuntime): GeckoSession? {
+        val session = sessions.poll()
+        scheduleRefill(runtime)
+        return session
+    }
+
+    @UiThread
+    fun scheduleRefill(runtime: GeckoRuntime) {
+        if (refillScheduled || sessions.size >= size) {
+            return
+        }
+
+        refillScheduled = true
+        val generation = generation
+
+        Looper.myQueue().addIdleHandler {
+            if (generation != this.generation) {
+                return@addIdleHandler false
+            }
+
+            // Only open one session per idle pass to not block the main thread for too long.
+            val session = createSession()
+            session.open(runtime)
+            sessions.add(session)
+
+            val keepRunning = sessions.size < size
+            refillScheduled = keepRunning
+            keepRunning
+        }
+    }
+
+    /**
+     * Close and remove all pooled sessions and cancel a scheduled refill. The pool is refilled the
+     * next time a session is taken. Returns the number of closed sessions.
+     */
+    @UiThread
+    fun clear(): Int {
+        generation++
+        refillScheduled = false
+
+        val closed = sessions.size
+        while (sessions.isNotEmpty()) {
+            sessions.poll().close()
+        }
+        return closed
+    }
+
+    companion object {
+        private const val DEFAULT_SIZE = 2
+
+        /**
+         * Create a new (not yet opened) session with the settings every Focus tab uses.
+         */
+        fun createSession(): GeckoSession {
+            val settings = GeckoSessionSettings()
+            settings.setBoolean(GeckoSessionSettings.USE_MULTIPROCESS, true)
+            settings.setBoolean(GeckoSessionSettings.USE_PRIVATE_MODE, true)
+            settings.setBoolean(GeckoSessionSettings.SUSPEND_MEDIA_WHEN_INACTIVE, true)
+            // Blocking is enabled for new tabs by default.
+            settings.setBoolean(GeckoSessionSettings.USE_TRACKING_PROTECTION, true)
+
+            return GeckoSession(settings)
+        }
+    }
+}
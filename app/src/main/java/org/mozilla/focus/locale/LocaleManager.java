@@ -91,6 +91,7 @@ public class LocaleManager {
                 // yet swizzled Locale during static initialization.
                 systemLocale = context.getResources().getConfiguration().locale;
                 systemLocaleDidChange = true;
+                Locales.clearLocalizedResourcesCache();
 
                 Log.d(LOG_TAG, "System locale changed from " + current + " to " + systemLocale);
             }
@@ -240,6 +241,8 @@ public class LocaleManager {
         config.setLayoutDirection(locale);
 
         res.updateConfiguration(config, null);
+
+        Locales.clearLocalizedResourcesCache();
     }
 
     private SharedPreferences getSharedPreferences(final Context context) {
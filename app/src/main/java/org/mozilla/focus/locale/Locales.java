@@ -9,10 +9,12 @@ import android.content.res.Configuration;
 import android.content.res.Resources;
 import android.os.LocaleList;
 import android.os.StrictMode;
+import android.support.v4.util.ArrayMap;
 import android.text.TextUtils;
 
 import java.util.LinkedHashSet;
 import java.util.Locale;
+import java.util.Map;
 import java.util.Set;
 
 /**
@@ -27,6 +29,12 @@ import java.util.Set;
 public class Locales {
     private static final String LOGTAG = "Locales";
 
+    private static final int MAX_LOCALIZED_RESOURCES = 4;
+
+    // Creating a configuration context instantiates new Resources every time:
+    // (locale tag, configuration fingerprint) -> Resources
+    private static final Map<String, Resources> localizedResourcesCache = new ArrayMap<>();
+
     /**
      * Is only required by locale aware activities, AND  Application. In most cases you should be
      * using LocaleAwareAppCompatActivity or friends.
@@ -146,9 +154,52 @@ public class Locales {
             return currentResources;
         }
 
+        final String cacheKey = currentLocale.toLanguageTag() + "|"
+                + getConfigurationFingerprint(currentResources.getConfiguration());
+
+        synchronized (localizedResourcesCache) {
+            final Resources cachedResources = localizedResourcesCache.get(cacheKey);
+            if (cachedResources != null) {
+                return cachedResources;
+            }
+        }
+
         final Configuration configuration = new Configuration(currentResources.getConfiguration());
         configuration.setLocale(currentLocale);
 
-        return context.createConfigurationContext(configuration).getResources();
+        final Resources resources = context.createConfigurationContext(configuration).getResources();
+
+        synchronized (localizedResourcesCache) {
+            if (localizedResourcesCache.size() >= MAX_LOCALIZED_RESOURCES) {
+                localizedResourcesCache.clear();
+            }
+            localizedResourcesCache.put(cacheKey, resources);
+        }
+
+        return resources;
+    }
+
+    /**
+     * Drop the cached localized Resources. Called by {@link LocaleManager} whenever the locale
+     * changes.
+     *
+     * @return The number of removed Resources instances.
+     */
+    public static int clearLocalizedResourcesCache() {
+        synchronized (localizedResourcesCache) {
+            final int removed = localizedResourcesCache.size();
+            localizedResourcesCache.clear();
+            return removed;
+        }
+    }
+
+    /**
+     * The parts of a configuration (other than the locale) that resources can depend on.
+     */
+    private static String getConfigurationFingerprint(Configuration configuration) {
+        return configuration.fontScale + "/" + configuration.densityDpi + "/" + configuration.uiMode
+                + "/" + configuration.screenLayout + "/" + configuration.orientation
+                + "/" + configuration.screenWidthDp + "x" + configuration.screenHeightDp
+                + "/" + configuration.smallestScreenWidthDp;
     }
 }
@@ -0,0 +1,102 @@
+/* This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/. */
+
+package org.mozilla.focus.memory
+
+import android.content.ComponentCallbacks2
+import android.util.Log
+
+/**
+ * Central registry for in-memory caches that can be rebuilt on demand. FocusApplication forwards
+ * onTrimMemory() calls to this class and we evict the registered caches in priority order: the
+ * higher the memory pressure the more (and the more expensive to rebuild) caches get dropped.
+ */
+object MemoryPressureManager {
+    private const val LOG_TAG = "MemoryPressure"
+
+    /**
+     * How valuable a cache is. Caches with a lower priority get trimmed first.
+     */
+    enum class Priority(internal val minimumTrimLevel: Int) {
+        /** Cheap to rebuild. Trimmed as soon as the app is in the background or memory runs low. */
+        LOW(ComponentCallbacks2.TRIM_MEMORY_RUNNING_LOW),
+
+        /** Rebuilding takes noticeable work. Trimmed under moderate pressure. */
+        MEDIUM(ComponentCallbacks2.TRIM_MEMORY_RUNNING_CRITICAL),
+
+        /** Dropping this has a visible effect for the user. Only trimmed when we are about to be killed. */
+        HIGH(ComponentCallbacks2.TRIM_MEMORY_COMPLETE)
+    }
+
+    /**
+     * A cache that can release its memory.
+     */
+    interface Trimmable {
+        /**
+         * Release the cached data and return the number of entries that have been freed.
+         */
+        fun trim(): Int
+    }
+
+    private class Registration(
+        val name: String,
+        val priority: Priority,
+        val trimmable: Trimmable
+    )
+
+    private val registrations = mutableListOf<Registration>()
+
+    @JvmStatic
+    fun register(name: String, priority: Priority, trimmable: Trimmable) {
+        synchronized(registrations) {
+            registrations.removeAll { it.name == name }
+            registrations.add(Registration(name, priority, trimmable))
+        }
+    }
+
+    @JvmStatic
+    fun unregister(name: String) {
+        synchronized(registrations) {
+            registrations.removeAll { it.name == name }
+        }
+    }
+
+    /**
+     * Trim all caches that should be released for the given level (one of the TRIM_MEMORY_* constants
+     * of [ComponentCallbacks2]). Returns the number of freed entries per cache.
+     */
+    @JvmStatic
+    fun onTrimMemory(level: Int): Map<String, Int> {
+        val toTrim = synchronized(registrations) {
+            registrations
+                .filter { shouldTrim(it.priority, level) }
+                .sortedBy { it.priority }
+        }
+
+        val freed = LinkedHashMap<String, Int>()
+
+        toTrim.forEach {
+            val entries = it.trimmable.trim()
+            freed[it.name] = entries
+            Log.d(LOG_TAG, "Trimmed ${it.name} (${it.priority}): $entries entries")
+        }
+
+        Log.i(LOG_TAG, "onTrimMemory($level): trimmed ${freed.size} caches, ${freed.values.sum()} entries")
+
+        return freed
+    }
+
+    private fun shouldTrim(priority: Priority, level: Int): Boolean {
+        // The UI_HIDDEN and BACKGROUND levels are larger than the RUNNING_* levels, but they
+        // only mean that we are not visible. Treat them like low memory while running.
+        val effectiveLevel = when (level) {
+            ComponentCallbacks2.TRIM_MEMORY_UI_HIDDEN,
+            ComponentCallbacks2.TRIM_MEMORY_BACKGROUND -> ComponentCallbacks2.TRIM_MEMORY_RUNNING_LOW
+            ComponentCallbacks2.TRIM_MEMORY_MODERATE -> ComponentCallbacks2.TRIM_MEMORY_RUNNING_CRITICAL
+            else -> level
+        }
+
+        return effectiveLevel >= priority.minimumTrimLevel
+    }
+}
@@ -15,7 +15,7 @@ import mozilla.components.browser.session.tab.CustomTabConfig
 import org.mozilla.focus.R
 import org.mozilla.focus.fragment.BrowserFragment
 import org.mozilla.focus.utils.AppConstants
-import org.mozilla.focus.utils.Browsers
+import org.mozilla.focus.utils.BrowsersCache
 import org.mozilla.focus.utils.HardwareUtils
 
 import java.lang.ref.WeakReference
@@ -65,7 +65,7 @@ class BrowserMenuAdapter(
 
     private fun initializeMenu(url: String, customTabConfig: CustomTabConfig?) {
         val resources = context.resources
-        val browsers = Browsers(context, url)
+        val browsers = BrowsersCache.get(context, url)
 
         if (shouldShowButtonToolbar()) {
             items.add(MenuItem.Navigation)
@@ -11,8 +11,6 @@ import android.content.ClipboardManager
 import android.content.Context
 import android.content.Intent
 import android.content.pm.ActivityInfo
-import android.content.pm.PackageManager
-import android.content.pm.ResolveInfo
 import android.graphics.Color
 import android.graphics.drawable.ColorDrawable
 import android.net.Uri
@@ -25,14 +23,19 @@ import android.text.Html
 import android.view.LayoutInflater
 import android.view.View
 import android.widget.TextView
+import kotlinx.coroutines.experimental.CoroutineStart
+import kotlinx.coroutines.experimental.android.UI
+import kotlinx.coroutines.experimental.async
+import kotlinx.coroutines.experimental.launch
 import mozilla.components.browser.session.Session
 import org.mozilla.focus.R
 import org.mozilla.focus.open.OpenWithFragment
 import org.mozilla.focus.ext.components
 import org.mozilla.focus.telemetry.TelemetryWrapper
 import org.mozilla.focus.telemetry.TelemetryWrapper.BrowserContextMenuValue
-import org.mozilla.focus.utils.Browsers
+import org.mozilla.focus.utils.BrowsersCache
 import org.mozilla.focus.utils.Settings
+import org.mozilla.focus.utils.TaskScheduler
 import org.mozilla.focus.utils.UrlUtils
 import org.mozilla.focus.utils.ViewUtils
 import org.mozilla.focus.utils.asFragmentActivity
@@ -49,7 +52,6 @@ object WebContextMenu {
         return titleView
     }
 
-    @Suppress("ComplexMethod")
     fun show(
         context: Context,
         callback: IWebView.Callback,
@@ -62,6 +64,32 @@ object WebContextMenu {
 
         TelemetryWrapper.openWebContextMenuEvent()
 
+        val linkURL = hitTarget.linkURL
+        if (linkURL == null) {
+            createDialog(context, callback, hitTarget, null).show()
+            return
+        }
+
+        // Find the apps (other than browsers) that can open the link before showing the menu: Adding
+        // the item to an open menu would move the other items under the finger of the user.
+        launch(UI, CoroutineStart.UNDISPATCHED) {
+            val appLinkData = async(TaskScheduler.userBlocking) {
+                BrowsersCache.getLinkHandlers(context, linkURL)
+            }.await()
+
+            if ((context as? Activity)?.isFinishing != true) {
+                createDialog(context, callback, hitTarget, appLinkData).show()
+            }
+        }
+    }
+
+    @Suppress("ComplexMethod")
+    private fun createDialog(
+        context: Context,
+        callback: IWebView.Callback,
+        hitTarget: IWebView.HitTarget,
+        appLinkData: Array<ActivityInfo>?
+    ): Dialog {
         val builder = AlertDialog.Builder(context)
 
         builder.setCustomTitle(when {
@@ -98,7 +126,7 @@ object WebContextMenu {
             navigationMenuView.isVerticalScrollBarEnabled = false
         }
 
-        setupMenuForHitTarget(dialog, menu, callback, hitTarget, context)
+        setupMenuForHitTarget(dialog, menu, callback, hitTarget, appLinkData, context)
 
         val warningView = view.findViewById<View>(R.id.warning) as TextView
         if (hitTarget.isImage) {
@@ -112,24 +140,7 @@ object WebContextMenu {
             warningView.visibility = View.GONE
         }
 
-        dialog.show()
-    }
-
-    private fun getAppDataForLink(context: Context, url: String): Array<ActivityInfo>? {
-        val intent = Intent(Intent.ACTION_VIEW)
-        intent.data = Uri.parse(url)
-
-        val browsers = Browsers(context, url)
-
-        val resolveInfos: List<ResolveInfo> = context.packageManager
-                .queryIntentActivities(intent, PackageManager.MATCH_DEFAULT_ONLY)
-                .filter {
-                    !browsers.installedBrowsers.contains(it.activityInfo) &&
-                            it.activityInfo.packageName != context.packageName
-                }
-
-        return if (resolveInfos.isEmpty()) null
-            else resolveInfos.map { it.activityInfo }.toTypedArray()
+        return dialog
     }
 
     /**
@@ -143,10 +154,9 @@ object WebContextMenu {
         navigationView: NavigationView,
         callback: IWebView.Callback,
         hitTarget: IWebView.HitTarget,
+        appLinkData: Array<ActivityInfo>?,
         context: Context
     ) = with(navigationView) {
-        val appLinkData =
-            if (hitTarget.linkURL != null) getAppDataForLink(context, hitTarget.linkURL) else null
         inflateMenu(R.menu.menu_browser_context)
 
         menu.findItem(R.id.menu_open_with_app).isVisible = appLinkData != null
@@ -0,0 +1,140 @@
+/* This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/. */
+
+package org.mozilla.focus.search
+
+import android.content.Context
+import android.util.AtomicFile
+import android.util.Log
+import mozilla.components.browser.search.SearchEngine
+import mozilla.components.browser.search.SearchEngineParser
+import mozilla.components.browser.search.provider.AssetsSearchEngineProvider
+import mozilla.components.browser.search.provider.SearchEngineProvider
+import mozilla.components.browser.search.provider.localization.LocaleSearchLocalizationProvider
+import org.mozilla.focus.BuildConfig
+import org.xmlpull.v1.XmlPullParserException
+import java.io.DataInputStream
+import java.io.DataOutputStream
+import java.io.File
+import java.io.IOException
+import java.util.Locale
+
+/**
+ * SearchEngineProvider implementation for the search engines bundled with the app.
+ *
+ * Resolving the engines for the current locale means reading the localization list and opening the
+ * XML asset of every engine. The result only changes with an app update or a locale change, so we
+ * keep the XML of the resolved engines in a single snapshot file keyed by app version and locale.
+ * Later launches read that one file instead.
+ *
+ * The engines hidden by the user are filtered when loading, they are not part of the snapshot.
+ */
+class BundledSearchEngineProvider(
+    private val assetsProvider: SearchEngineProvider = AssetsSearchEngineProvider(
+        LocaleSearchLocalizationProvider(),
+        filters = listOf(BingSearchEngineFilter()),
+        additionalIdentifiers = listOf("ddg")),
+    private val versionCode: Int = BuildConfig.VERSION_CODE
+) : SearchEngineProvider {
+    private val hiddenFilter = HiddenSearchEngineFilter()
+
+    // Our version of ktlint enforces the wrong modifier order. We need to update the plugin: #2488
+    /* ktlint-disable modifier-order */
+    override suspend fun loadSearchEngines(context: Context): List<SearchEngine> {
+        val file = File(context.filesDir, SNAPSHOT_FILENAME)
+        val key = snapshotKey()
+
+        val engines = readSnapshot(file, key) ?: assetsProvider.loadSearchEngines(context).also {
+            writeSnapshot(context, file, key, it)
+        }
+
+        return engines.filter { hiddenFilter.filter(context, it) }
+    }
+
+    private fun readSnapshot(file: File, key: String): List<SearchEngine>? {
+        if (!file.exists()) {
+            return null
+        }
+
+        val parser = SearchEngineParser()
+
+        return try {
+            DataInputStream(AtomicFile(file).openRead().buffered()).use { input ->
+                if (input.readInt() != MAGIC || input.readUTF() != key) {
+                    return null
+                }
+
+                val count = input.readInt()
+                if (count < 0) {
+                    return null
+                }
+
+                // Nothing in the file is trusted for allocations: A corrupt count or length must not
+                // make us allocate more than the size of the file.
+                val engines = ArrayList<SearchEngine>()
+                repeat(count) {
+                    val identifier = input.readUTF()
+                    val length = input.readInt()
+                    if (length < 0 || length > file.length()) {
+                        return null
+                    }
+                    val xml = ByteArray(length)
+                    input.readFully(xml)
+                    engines.add(parser.load(identifier, xml.inputStream()))
+                }
+                engines
+            }
+        } catch (e: IOException) {
+            Log.w(LOG_TAG, "Could not read search engine snapshot", e)
+            null
+        } catch (e: XmlPullParserException) {
+            Log.w(LOG_TAG, "Invalid search engine snapshot", e)
+            null
+        } catch (e: RuntimeException) {
+            Log.w(LOG_TAG, "Corrupt search engine snapshot", e)
+            null
+        }
+    }
+
+    private fun writeSnapshot(context: Context, file: File, key: String, engines: List<SearchEngine>) {
+        val atomicFile = AtomicFile(file)
+        val stream = try {
+            atomicFile.startWrite()
+        } catch (e: IOException) {
+            Log.w(LOG_TAG, "Could not write search engine snapshot", e)
+            return
+        }
+
+        try {
+            DataOutputStream(stream.buffered()).apply {
+                writeInt(MAGIC)
+                writeUTF(key)
+                writeInt(engines.size)
+
+                engines.forEach { engine ->
+                    val xml = context.assets.open("$ASSET_DIRECTORY/${engine.identifier}.xml").use { it.readBytes() }
+                    writeUTF(engine.identifier)
+                    writeInt(xml.size)
+                    write(xml)
+                }
+
+                flush()
+            }
+
+            atomicFile.finishWrite(stream)
+        } catch (e: IOException) {
+            Log.w(LOG_TAG, "Could not write search engine snapshot", e)
+            atomicFile.failWrite(stream)
+        }
+    }
+
+    private fun snapshotKey() = "$versionCode/${Locale.getDefault()}"
+
+    companion object {
+        private const val LOG_TAG = "BundledSearchEngines"
+        private const val MAGIC = 0x46534531 // "FSE1"
+        private const val SNAPSHOT_FILENAME = "bundled_search_engines.snapshot"
+        private const val ASSET_DIRECTORY = "searchplugins"
+    }
+}
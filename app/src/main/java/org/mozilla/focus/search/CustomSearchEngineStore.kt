@@ -5,15 +5,31 @@
 package org.mozilla.focus.search
 
 import android.content.Context
+import android.graphics.Bitmap
+import android.support.annotation.VisibleForTesting
+import android.support.annotation.WorkerThread
+import android.util.Base64
 import android.util.Log
 import mozilla.components.browser.search.SearchEngine
 import mozilla.components.browser.search.SearchEngineParser
 import org.mozilla.focus.ext.components
 import org.mozilla.focus.shortcut.IconGenerator
+import org.mozilla.focus.utils.BitmapUtils
+import org.mozilla.focus.utils.TaskScheduler
 import org.xmlpull.v1.XmlPullParserException
 import java.io.IOException
 
 object CustomSearchEngineStore {
+    /**
+     * Parsed custom search engines. Parsing the OpenSearch XML of every engine is expensive, so we
+     * only do it again after an engine has been added or removed.
+     */
+    @Volatile
+    private var cachedEngines: List<SearchEngine>? = null
+
+    // Incremented on every change so that a parse that started before the change is not cached.
+    private var cacheGeneration = 0
+
     fun isSearchEngineNameUnique(context: Context, engineName: String): Boolean {
         val sharedPreferences = context.getSharedPreferences(PREF_FILE_SEARCH_ENGINES,
                 Context.MODE_PRIVATE)
@@ -35,10 +51,19 @@ object CustomSearchEngineStore {
                 .contains(PREF_KEY_HIDDEN_DEFAULT_ENGINES)
     }
 
+    @WorkerThread
     fun addSearchEngine(context: Context, engineName: String, searchQuery: String): Boolean {
+        // Existing engines need to be migrated before we bump the version below.
+        migrateIconsIfNeeded(context)
+
         // This is not for a homescreen shortcut so we don't want an adaptive launcher icon.
         val iconBitmap = IconGenerator.generateSearchEngineIcon(context)
-        val searchEngineXml = SearchEngineWriter.buildSearchEngineXML(engineName, searchQuery, iconBitmap)
+        if (!SearchEngineIconStore.putIcon(context, engineName, iconBitmap)) {
+            return false
+        }
+
+        // The XML only contains a tiny placeholder image; the actual icon is in the icon store.
+        val searchEngineXml = SearchEngineWriter.buildSearchEngineXML(engineName, searchQuery, placeholderIcon)
                 ?: return false
         val existingEngines = pref(context).getStringSet(PREF_KEY_CUSTOM_SEARCH_ENGINES, emptySet())
         val newEngines = LinkedHashSet<String>()
@@ -52,6 +77,8 @@ object CustomSearchEngineStore {
                 .putString(engineName, searchEngineXml)
                 .apply()
 
+        invalidateCache(context)
+
         return true
     }
 
@@ -61,9 +88,12 @@ object CustomSearchEngineStore {
         val remainingCustomEngines = LinkedHashSet<String>()
         val enginesEditor = pref(context).edit()
 
+        val removedCustomEngines = mutableListOf<String>()
+
         for (engineId in customEngines!!) {
             if (engineIdsToRemove.contains(engineId)) {
                 enginesEditor.remove(engineId)
+                removedCustomEngines.add(engineId)
                 // Handled engine removal.
                 engineIdsToRemove.remove(engineId)
             } else {
@@ -78,21 +108,95 @@ object CustomSearchEngineStore {
         enginesEditor.putStringSet(PREF_KEY_HIDDEN_DEFAULT_ENGINES, engineIdsToRemove)
 
         enginesEditor.apply()
+
+        invalidateCache(context)
+
+        val applicationContext = context.applicationContext
+        TaskScheduler.execute(TaskScheduler.Lane.DEFERRABLE, Runnable {
+            removedCustomEngines.forEach { SearchEngineIconStore.removeIcon(applicationContext, it) }
+        })
     }
 
     fun getRemovedSearchEngines(context: Context): Set<String> =
             pref(context).getStringSet(PREF_KEY_HIDDEN_DEFAULT_ENGINES, emptySet())!!
 
-    fun isCustomSearchEngine(engineId: String, context: Context): Boolean {
-        for (e in loadCustomSearchEngines(context)) {
-            if (e.identifier == engineId) {
-                return true
+    /**
+     * The icon to display for the given engine. Custom engines only contain a placeholder image,
+     * their icon is decoded from the icon store on first use.
+     */
+    @WorkerThread
+    fun getIcon(context: Context, engine: SearchEngine): Bitmap =
+            if (isCustomSearchEngine(engine.identifier, context)) {
+                SearchEngineIconStore.getIcon(context, engine.identifier) ?: engine.icon
+            } else {
+                engine.icon
+            }
+
+    /**
+     * The icon of the given engine if it doesn't need to be read from disk, otherwise null.
+     */
+    fun getCachedIcon(context: Context, engine: SearchEngine): Bitmap? =
+            if (isCustomSearchEngine(engine.identifier, context)) {
+                SearchEngineIconStore.getCachedIcon(engine.identifier)
+            } else {
+                engine.icon
+            }
+
+    /**
+     * The identifier of a custom engine is its name, so we don't need to parse the engines here.
+     */
+    fun isCustomSearchEngine(engineId: String, context: Context): Boolean =
+            pref(context).getStringSet(PREF_KEY_CUSTOM_SEARCH_ENGINES, emptySet())!!.contains(engineId)
+
+    @WorkerThread
+    fun loadCustomSearchEngines(context: Context): List<SearchEngine> =
+            loadCustomSearchEngines(context) { parseCustomSearchEngines(it) }
+
+    @VisibleForTesting
+    @WorkerThread
+    internal fun loadCustomSearchEngines(
+        context: Context,
+        parse: (Context) -> List<SearchEngine>
+    ): List<SearchEngine> {
+        cachedEngines?.let { return it }
+
+        val generation = synchronized(this) { cacheGeneration }
+        val engines = parse(context)
+
+        synchronized(this) {
+            if (generation == cacheGeneration) {
+                cachedEngines = engines
             }
         }
-        return false
+
+        return engines
     }
 
-    fun loadCustomSearchEngines(context: Context): List<SearchEngine> {
+    private fun invalidateCache(context: Context) {
+        synchronized(this) {
+            cacheGeneration++
+            cachedEngines = null
+        }
+
+        // Parse the new list in the background so that the next caller doesn't have to.
+        val applicationContext = context.applicationContext
+        TaskScheduler.execute(TaskScheduler.Lane.DEFERRABLE, Runnable {
+            loadCustomSearchEngines(applicationContext)
+        })
+    }
+
+    @VisibleForTesting
+    internal fun reset() {
+        synchronized(this) {
+            cacheGeneration++
+            cachedEngines = null
+        }
+    }
+
+    @WorkerThread
+    private fun parseCustomSearchEngines(context: Context): List<SearchEngine> {
+        migrateIconsIfNeeded(context)
+
         val customEngines = mutableListOf<SearchEngine>()
         val parser = SearchEngineParser()
         val prefs = context.getSharedPreferences(PREF_FILE_SEARCH_ENGINES, Context.MODE_PRIVATE)
@@ -110,9 +214,50 @@ object CustomSearchEngineStore {
             Log.e(LOG_TAG, "Couldn't load custom search engines", e)
         }
 
+        // The settings show the icons of all engines: Decode them now that we are in the background.
+        customEngines.forEach { SearchEngineIconStore.getIcon(context, it.identifier) }
+
         return customEngines
     }
 
+    /**
+     * Version 1 stored the icon as a base64 PNG data URI in the XML of every engine. Move those
+     * PNGs to the icon store (without decoding them) and replace them with the placeholder.
+     */
+    @WorkerThread
+    @Synchronized
+    private fun migrateIconsIfNeeded(context: Context) {
+        val prefs = pref(context)
+        if (prefs.getInt(PREF_KEY_CUSTOM_SEARCH_VERSION, CUSTOM_SEARCH_VERSION) >= CUSTOM_SEARCH_VERSION) {
+            return
+        }
+
+        val editor = prefs.edit()
+        for (engine in prefs.getStringSet(PREF_KEY_CUSTOM_SEARCH_ENGINES, emptySet())!!) {
+            val xml = prefs.getString(engine, null) ?: continue
+            val match = IMAGE_DATA_URI_PATTERN.find(xml) ?: continue
+
+            val png = try {
+                Base64.decode(match.groupValues[2], Base64.DEFAULT)
+            } catch (e: IllegalArgumentException) {
+                Log.w(LOG_TAG, "Invalid icon of custom search engine", e)
+                continue
+            }
+
+            if (SearchEngineIconStore.putIcon(context, engine, png)) {
+                val placeholder = BitmapUtils.getBase64EncodedDataUriFromBitmap(placeholderIcon)
+                editor.putString(engine, xml.replaceRange(match.groups[1]!!.range.first,
+                    match.groups[2]!!.range.last + 1, placeholder))
+            }
+        }
+
+        editor.putInt(PREF_KEY_CUSTOM_SEARCH_VERSION, CUSTOM_SEARCH_VERSION).apply()
+    }
+
+    private val placeholderIcon: Bitmap by lazy { Bitmap.createBitmap(1, 1, Bitmap.Config.ARGB_8888) }
+
+    private val IMAGE_DATA_URI_PATTERN = Regex("<Image[^>]*>\\s*(data:image/png;base64,)([^<]*)</Image>")
+
     private fun pref(context: Context) =
             context.getSharedPreferences(PREF_FILE_SEARCH_ENGINES, Context.MODE_PRIVATE)
 
@@ -123,6 +268,6 @@ object CustomSearchEngineStore {
     private const val PREF_KEY_CUSTOM_SEARCH_ENGINES = "pref_custom_search_engines"
     private const val PREF_KEY_HIDDEN_DEFAULT_ENGINES = "hidden_default_engines"
     private const val PREF_KEY_CUSTOM_SEARCH_VERSION = "pref_custom_search_version"
-    private const val CUSTOM_SEARCH_VERSION = 1
+    private const val CUSTOM_SEARCH_VERSION = 2
     private const val PREF_FILE_SEARCH_ENGINES = "custom-search-engines"
 }
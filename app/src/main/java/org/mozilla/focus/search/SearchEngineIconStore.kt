@@ -0,0 +1,124 @@
+/* This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/. */
+
+package org.mozilla.focus.search
+
+import android.content.Context
+import android.graphics.Bitmap
+import android.graphics.BitmapFactory
+import android.net.Uri
+import android.support.annotation.WorkerThread
+import android.util.AtomicFile
+import android.util.Log
+import android.util.LruCache
+import java.io.File
+import java.io.IOException
+
+/**
+ * Stores the icons of custom search engines as PNG files (one per engine, named after the engine
+ * identifier) instead of embedding them into the search engine XML in SharedPreferences. Icons are
+ * only decoded when they are displayed and kept in a small memory cache.
+ */
+object SearchEngineIconStore {
+    private const val LOG_TAG = "SearchEngineIconStore"
+    private const val ICON_DIRECTORY = "search_engine_icons"
+    private const val CACHE_SIZE_BYTES = 512 * 1024
+
+    private val cache = object : LruCache<String, Bitmap>(CACHE_SIZE_BYTES) {
+        override fun sizeOf(key: String, value: Bitmap): Int = value.byteCount
+    }
+
+    @WorkerThread
+    fun putIcon(context: Context, engineId: String, icon: Bitmap): Boolean {
+        val file = AtomicFile(iconFile(context, engineId))
+        val stream = try {
+            file.startWrite()
+        } catch (e: IOException) {
+            Log.w(LOG_TAG, "Could not write icon", e)
+            return false
+        }
+
+        return if (icon.compress(Bitmap.CompressFormat.PNG, 100, stream)) {
+            file.finishWrite(stream)
+            cache.put(engineId, icon)
+            true
+        } else {
+            file.failWrite(stream)
+            false
+        }
+    }
+
+    /**
+     * Store an icon that is already PNG encoded (e.g. from a data URI) without decoding it.
+     */
+    @WorkerThread
+    fun putIcon(context: Context, engineId: String, png: ByteArray): Boolean {
+        val file = AtomicFile(iconFile(context, engineId))
+        val stream = try {
+            file.startWrite()
+        } catch (e: IOException) {
+            Log.w(LOG_TAG, "Could not write icon", e)
+            return false
+        }
+
+        return try {
+            stream.write(png)
+            file.finishWrite(stream)
+            cache.remove(engineId)
+            true
+        } catch (e: IOException) {
+            Log.w(LOG_TAG, "Could not write icon", e)
+            file.failWrite(stream)
+            false
+        }
+    }
+
+    /**
+     * Returns the icon of the given engine or null if there's no stored icon. The first call for an
+     * engine decodes the icon from disk.
+     */
+    @WorkerThread
+    fun getIcon(context: Context, engineId: String): Bitmap? {
+        cache.get(engineId)?.let { return it }
+
+        val file = iconFile(context, engineId)
+        if (!file.exists()) {
+            return null
+        }
+
+        val icon = BitmapFactory.decodeFile(file.absolutePath) ?: return null
+        cache.put(engineId, icon)
+        return icon
+    }
+
+    /**
+     * Returns the icon of the given engine if it has already been decoded, otherwise null.
+     */
+    fun getCachedIcon(engineId: String): Bitmap? = cache.get(engineId)
+
+    @WorkerThread
+    fun removeIcon(context: Context, engineId: String) {
+        cache.remove(engineId)
+        AtomicFile(iconFile(context, engineId)).delete()
+    }
+
+    /**
+     * Drop all decoded icons. They will be decoded again on demand.
+     *
+     * @return The number of removed icons.
+     */
+    fun clearCache(): Int = synchronized(cache) {
+        // The size of the cache is in bytes.
+        val removed = cache.snapshot().size
+        cache.evictAll()
+        removed
+    }
+
+    private fun iconFile(context: Context, engineId: String): File {
+        val directory = File(context.filesDir, ICON_DIRECTORY)
+        directory.mkdirs()
+        // The identifier is the user entered engine name and can contain any character.
+        return File(directory, Uri.encode(engineId) + ".png")
+    }
+}
@@ -6,6 +6,7 @@ package org.mozilla.focus.search
 
 import android.content.Context
 import android.content.res.Resources
+import android.graphics.Bitmap
 import android.graphics.drawable.BitmapDrawable
 import android.support.v7.preference.Preference
 import android.support.v7.preference.PreferenceViewHolder
@@ -16,11 +17,13 @@ import android.view.ViewGroup
 import android.widget.CompoundButton
 import android.widget.RadioGroup
 import kotlinx.coroutines.experimental.android.UI
+import kotlinx.coroutines.experimental.async
 import kotlinx.coroutines.experimental.launch
 import mozilla.components.browser.search.SearchEngine
 import org.mozilla.focus.R
 import org.mozilla.focus.ext.components
 import org.mozilla.focus.utils.Settings
+import org.mozilla.focus.utils.TaskScheduler
 
 abstract class SearchEngineListPreference : Preference {
     protected var searchEngines: List<SearchEngine> = emptyList()
@@ -99,11 +102,27 @@ abstract class SearchEngineListPreference : Preference {
     ): CompoundButton {
         val buttonItem = layoutInflater.inflate(itemResId, null) as CompoundButton
         buttonItem.text = engine.name
+        val context = layoutInflater.context
+        val cachedIcon = CustomSearchEngineStore.getCachedIcon(context, engine)
+        setIcon(buttonItem, cachedIcon ?: engine.icon, res)
+
+        if (cachedIcon == null) {
+            // Show the placeholder until the icon of the custom engine has been read from disk.
+            launch(UI) {
+                val icon = async(TaskScheduler.userBlocking) {
+                    CustomSearchEngineStore.getIcon(context, engine)
+                }.await()
+                setIcon(buttonItem, icon, res)
+            }
+        }
+        return buttonItem
+    }
+
+    private fun setIcon(buttonItem: CompoundButton, icon: Bitmap, res: Resources) {
         val iconSize = res.getDimension(R.dimen.preference_icon_drawable_size).toInt()
-        val engineIcon = BitmapDrawable(res, engine.icon)
+        val engineIcon = BitmapDrawable(res, icon)
         engineIcon.setBounds(0, 0, iconSize, iconSize)
         val drawables = buttonItem.compoundDrawables
         buttonItem.setCompoundDrawables(engineIcon, null, drawables[2], null)
-        return buttonItem
     }
 }
@@ -0,0 +1,115 @@
+/* This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/. */
+
+package org.mozilla.focus.searchsuggestions
+
+import java.util.Locale
+
+/**
+ * An in-memory prefix index over the suggestions we can make without asking the search engine:
+ * domains and search engine names.
+ *
+ * The sources are passed in order of importance (e.g. the custom domains of the user before the
+ * domains shipped with the app). Within a source the position in the list is its popularity. A
+ * query returns the entries that start with it, an exact match first and then by source and
+ * popularity.
+ */
+class LocalSuggestionIndex {
+    private class Entry(val key: String, val text: String, val keyOffset: Int, val score: Int)
+
+    // Sorted by key. Replaced as a whole, so lookups don't need a lock.
+    @Volatile
+    private var entries: Array<Entry> = emptyArray()
+
+    fun set(sources: List<List<String>>) {
+        val byKey = HashMap<String, Entry>()
+
+        sources.forEachIndexed { sourceIndex, source ->
+            source.forEachIndexed { rank, text ->
+                val entry = createEntry(text, sourceIndex * SOURCE_WEIGHT + rank)
+                // The same domain can be in several lists: Keep the most important one.
+                if (entry.key.isNotEmpty() && entry.key !in byKey) {
+                    byKey[entry.key] = entry
+                }
+            }
+        }
+
+        entries = byKey.values.sortedBy { it.key }.toTypedArray()
+    }
+
+    fun find(query: String, limit: Int): List<Suggestion> {
+        val prefix = normalize(query)
+        if (prefix.isEmpty()) {
+            return emptyList()
+        }
+
+        val entries = entries
+        val best = ArrayList<Entry>(limit + 1)
+
+        var index = lowerBound(entries, prefix)
+        while (index < entries.size && entries[index].key.startsWith(prefix)) {
+            val entry = entries[index++]
+
+            // Keep the best matches sorted; there are only a few of them.
+            var position = best.size
+            while (position > 0 && isBetter(entry, best[position - 1], prefix)) {
+                position--
+            }
+            if (position < limit) {
+                best.add(position, entry)
+                if (best.size > limit) {
+                    best.removeAt(limit)
+                }
+            }
+        }
+
+        // Lower casing can change the length of the text (e.g. "İ"): The highlight must not be longer.
+        return best.map { Suggestion(it.text, minOf(it.text.length, it.keyOffset + prefix.length)) }
+    }
+
+    private fun isBetter(entry: Entry, other: Entry, prefix: String): Boolean {
+        val exact = entry.key.length == prefix.length
+        val otherExact = other.key.length == prefix.length
+
+        return if (exact != otherExact) exact else entry.score < other.score
+    }
+
+    private fun lowerBound(entries: Array<Entry>, prefix: String): Int {
+        var low = 0
+        var high = entries.size
+
+        while (low < high) {
+            val middle = (low + high) ushr 1
+            if (entries[middle].key < prefix) {
+                low = middle + 1
+            } else {
+                high = middle
+            }
+        }
+
+        return low
+    }
+
+    companion object {
+        // Larger than any list we index, so that the source always comes before the popularity.
+        private const val SOURCE_WEIGHT = 1 shl 20
+
+        private val PREFIX = Regex("^(https?://)?(www\\.)?")
+
+        private fun createEntry(text: String, score: Int): Entry {
+            val lowerCase = text.toLowerCase(Locale.US)
+            val keyOffset = PREFIX.find(lowerCase)?.value?.length ?: 0
+
+            return Entry(lowerCase.substring(keyOffset), text, keyOffset, score)
+        }
+
+        /**
+         * Matches are compared without the scheme and "www.": "https://www.moz" finds "mozilla.org".
+         */
+        private fun normalize(query: String): String {
+            val lowerCase = query.trim().toLowerCase(Locale.US)
+            return lowerCase.substring(PREFIX.find(lowerCase)?.value?.length ?: 0)
+        }
+    }
+}
@@ -0,0 +1,84 @@
+/* This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/. */
+
+package org.mozilla.focus.searchsuggestions
+
+import android.content.Context
+import android.support.annotation.WorkerThread
+import kotlinx.coroutines.experimental.android.UI
+import kotlinx.coroutines.experimental.launch
+import mozilla.components.browser.domains.Domains
+import org.mozilla.focus.autocomplete.CustomDomainStore
+import org.mozilla.focus.ext.components
+import org.mozilla.focus.utils.Settings
+import org.mozilla.focus.utils.TaskScheduler
+import java.util.Locale
+
+/**
+ * Suggestions that never leave the device: the custom domains of the user, the names of the
+ * installed search engines and the domains shipped with the app (in this order).
+ *
+ * The index is built in the background. Building and lookups run one after another, so a lookup
+ * made while the index is still being built is answered as soon as it is ready.
+ */
+object LocalSuggestions {
+    private const val MAX_RESULTS = 5
+
+    private val lane = TaskScheduler.serial(TaskScheduler.Lane.USER_BLOCKING)
+    private val index = LocalSuggestionIndex()
+
+    // Only accessed on the lane.
+    private var shippedDomains: List<String> = emptyList()
+    private var shippedLocale: Locale? = null
+    private var sources: List<List<String>>? = null
+
+    /**
+     * Build the index if that hasn't happened yet or if any of the lists has changed since.
+     */
+    fun initialize(context: Context) {
+        val applicationContext = context.applicationContext
+        lane.execute { build(applicationContext) }
+    }
+
+    /**
+     * Look up the suggestions for [query] and pass them to [callback] on the main thread.
+     */
+    fun find(query: String, callback: (List<Suggestion>) -> Unit) {
+        lane.execute {
+            val suggestions = index.find(query, MAX_RESULTS)
+            launch(UI) { callback(suggestions) }
+        }
+    }
+
+    @WorkerThread
+    private fun build(context: Context) {
+        val settings = Settings.getInstance(context)
+
+        val custom = if (settings.shouldAutocompleteFromCustomDomainList()) {
+            CustomDomainStore.load(context)
+        } else {
+            emptyList()
+        }
+
+        val engines = context.components.searchEngineManager.getSearchEngines(context).map { it.name }
+
+        val shipped = if (settings.shouldAutocompleteFromShippedDomainList()) {
+            // The shipped list depends on the countries of the locale.
+            val locale = Locale.getDefault()
+            if (shippedLocale != locale) {
+                shippedDomains = Domains.load(context)
+                shippedLocale = locale
+            }
+            shippedDomains
+        } else {
+            emptyList()
+        }
+
+        val sources = listOf(custom, engines, shipped)
+        if (sources != this.sources) {
+            index.set(sources)
+            this.sources = sources
+        }
+    }
+}
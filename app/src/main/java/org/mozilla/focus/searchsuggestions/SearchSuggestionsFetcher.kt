@@ -6,24 +6,41 @@ package org.mozilla.focus.searchsuggestions
 
 import android.arch.lifecycle.LiveData
 import android.arch.lifecycle.MutableLiveData
-import kotlinx.coroutines.experimental.CommonPool
+import android.os.SystemClock
 import kotlinx.coroutines.experimental.android.UI
 import kotlinx.coroutines.experimental.channels.Channel
 import kotlinx.coroutines.experimental.channels.consumeEach
 import mozilla.components.browser.search.suggestions.SearchSuggestionClient
 import kotlinx.coroutines.experimental.launch
 import mozilla.components.browser.search.SearchEngine
-import okhttp3.OkHttpClient
+import okhttp3.Call
 import okhttp3.Request
+import org.mozilla.focus.utils.AdaptiveDebounce
+import org.mozilla.focus.utils.HttpClients
+import org.mozilla.focus.utils.TaskScheduler
 import org.mozilla.focus.utils.debounce
+import java.util.concurrent.atomic.AtomicLong
 
 class SearchSuggestionsFetcher(searchEngine: SearchEngine) {
     data class SuggestionResult(val query: String, val suggestions: List<String>)
 
     private var client: SearchSuggestionClient? = null
-    private var httpClient = OkHttpClient()
+    @Volatile
+    private var engineId: String = searchEngine.identifier
+    private val httpClient = HttpClients.withTimeout(SUGGESTION_TIMEOUT_MS)
 
-    private val fetchChannel = Channel<String>(capacity = Channel.UNLIMITED)
+    /**
+     * Every request gets a sequence number. Results of anything but the latest request are stale
+     * and dropped.
+     */
+    private class SuggestionRequest(val sequence: Long, val query: String)
+
+    private val fetchChannel = Channel<SuggestionRequest>(capacity = Channel.UNLIMITED)
+    private val latestSequence = AtomicLong()
+    private val debounce = AdaptiveDebounce()
+
+    @Volatile
+    private var currentCall: Call? = null
 
     private val _results = MutableLiveData<SuggestionResult>()
     val results: LiveData<SuggestionResult> = _results
@@ -33,52 +50,92 @@ class SearchSuggestionsFetcher(searchEngine: SearchEngine) {
 
     init {
         updateSearchEngine(searchEngine)
-        launch(CommonPool) {
+        launch(TaskScheduler.userBlocking) {
             fetchChannel
-                    .debounce(THROTTLE_AMOUNT)
+                    .debounce { debounce.windowMs() }
                     .consumeEach { getSuggestions(it) }
         }
     }
 
     fun requestSuggestions(query: String) {
+        val sequence = latestSequence.incrementAndGet()
+
+        // Whatever is still in flight has been superseded by this query.
+        currentCall?.cancel()
+
         if (query.isBlank()) { _results.value = SuggestionResult(query, listOf()); return }
-        fetchChannel.offer(query)
+
+        debounce.onInput(SystemClock.elapsedRealtime())
+        fetchChannel.offer(SuggestionRequest(sequence, query))
     }
 
     fun updateSearchEngine(searchEngine: SearchEngine) {
         canProvideSearchSuggestions = searchEngine.canProvideSearchSuggestions
         client = if (canProvideSearchSuggestions) SearchSuggestionClient(searchEngine, { fetch(it) }) else null
+        engineId = searchEngine.identifier
     }
 
-    private suspend fun getSuggestions(query: String) {
+    private suspend fun getSuggestions(request: SuggestionRequest) {
+        val engineId = engineId
+        val query = request.query
+
+        if (isStale(request)) {
+            return
+        }
+
+        SuggestionCache.get(engineId, query)?.let {
+            postResult(request, it)
+            return
+        }
+
+        // Show what we already know from a shorter query while we are fetching the actual result.
+        SuggestionCache.getPrefixMatch(engineId, query)?.let {
+            postResult(request, it)
+        }
+
+        // The session might be erased while we are waiting for the response.
+        val epoch = SuggestionCache.epoch
         val suggestions = try {
-            client?.getSuggestions(query) ?: listOf()
+            client?.getSuggestions(query)?.also { SuggestionCache.put(engineId, query, it, epoch) } ?: listOf()
         } catch (ex: SearchSuggestionClient.ResponseParserException) {
             listOf<String>()
         } catch (ex: SearchSuggestionClient.FetchException) {
             listOf<String>()
         }
 
+        postResult(request, suggestions)
+    }
+
+    private fun isStale(request: SuggestionRequest) = request.sequence != latestSequence.get()
+
+    private fun postResult(request: SuggestionRequest, suggestions: List<String>) {
         launch(UI) {
-            _results.value = SuggestionResult(query, suggestions)
+            // Checked on the main thread: Blank queries update the results directly from there.
+            if (!isStale(request)) {
+                _results.value = SuggestionResult(request.query, suggestions)
+            }
         }
     }
 
     private fun fetch(url: String): String? {
-        httpClient.dispatcher().queuedCalls()
-                .filter { it.request().tag() == REQUEST_TAG }
-                .forEach { it.cancel() }
-
         val request = Request.Builder()
-                .tag(REQUEST_TAG)
                 .url(url)
                 .build()
 
-        return httpClient.newCall(request).execute().body()?.string() ?: ""
+        val call = httpClient.newCall(request)
+
+        currentCall = call
+
+        val start = SystemClock.elapsedRealtime()
+        return call.execute().use { response ->
+            response.body()?.string().also {
+                debounce.onRoundTrip(SystemClock.elapsedRealtime() - start)
+            } ?: ""
+        }
     }
 
     companion object {
-        private const val REQUEST_TAG = "searchSuggestionFetch"
-        private const val THROTTLE_AMOUNT: Long = 100
+        // Suggestions that arrive later than this are not useful anymore.
+        private const val SUGGESTION_TIMEOUT_MS = 5000L
     }
 }
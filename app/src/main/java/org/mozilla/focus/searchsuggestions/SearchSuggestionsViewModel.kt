@@ -7,12 +7,9 @@ package org.mozilla.focus.searchsuggestions
 import android.app.Application
 import android.arch.lifecycle.AndroidViewModel
 import android.arch.lifecycle.LiveData
+import android.arch.lifecycle.MediatorLiveData
 import android.arch.lifecycle.MutableLiveData
 import android.arch.lifecycle.Transformations.map
-import android.graphics.Typeface
-import android.text.Spannable
-import android.text.SpannableStringBuilder
-import android.text.style.StyleSpan
 
 sealed class State {
     data class Disabled(val givePrompt: Boolean) : State()
@@ -20,6 +17,12 @@ sealed class State {
     object ReadyForSuggestions : State()
 }
 
+/**
+ * A suggestion shown in the list. The text identifies the suggestion; the first [highlightLength]
+ * characters (the part the user has typed) are shown in bold.
+ */
+data class Suggestion(val text: String, val highlightLength: Int)
+
 class SearchSuggestionsViewModel(application: Application) : AndroidViewModel(application) {
     private val fetcher: SearchSuggestionsFetcher
     private val preferences: SearchSuggestionsPreferences = SearchSuggestionsPreferences(application)
@@ -33,22 +36,30 @@ class SearchSuggestionsViewModel(application: Application) : AndroidViewModel(ap
     private val _state = MutableLiveData<State>()
     val state: LiveData<State> = _state
 
-    val suggestions: LiveData<List<SpannableStringBuilder>>
+    private val localSuggestions = MutableLiveData<List<Suggestion>>()
+
+    val suggestions: LiveData<List<Suggestion>>
     var alwaysSearch = false
         private set
 
     init {
         fetcher = SearchSuggestionsFetcher(preferences.getSearchEngine())
 
-        suggestions = map(fetcher.results) { result ->
-            val style = StyleSpan(Typeface.BOLD)
-            val endIndex = result.query.length
+        val remoteSuggestions = map(fetcher.results) { result ->
+            val queryLength = result.query.length
+
+            // The spans are applied when a row is bound, so that rows can reuse them.
+            result.suggestions.map { Suggestion(it, minOf(queryLength, it.length)) }
+        }
 
-            result.suggestions.map { suggestion ->
-                SpannableStringBuilder(suggestion).apply {
-                    setSpan(style, 0, minOf(endIndex, suggestion.length), Spannable.SPAN_EXCLUSIVE_EXCLUSIVE)
+        suggestions = MediatorLiveData<List<Suggestion>>().apply {
+            addSource(remoteSuggestions) {
+                // A request made before suggestions were disabled can still complete.
+                if (state.value is State.ReadyForSuggestions) {
+                    value = it
                 }
             }
+            addSource(localSuggestions) { value = it }
         }
     }
 
@@ -60,8 +71,24 @@ class SearchSuggestionsViewModel(application: Application) : AndroidViewModel(ap
     fun setSearchQuery(query: String) {
         _searchQuery.value = query
 
+        requestSuggestions(query)
+    }
+
+    /**
+     * Ask the search engine if it can provide suggestions and the user has enabled them. Otherwise
+     * show the suggestions we can make without sending the query anywhere.
+     */
+    private fun requestSuggestions(query: String) {
         if (state.value is State.ReadyForSuggestions) {
             fetcher.requestSuggestions(query)
+            return
+        }
+
+        LocalSuggestions.find(query) { suggestions ->
+            // Drop the result if the user has typed something else (or enabled suggestions) meanwhile.
+            if (query == searchQuery.value && state.value !is State.ReadyForSuggestions) {
+                localSuggestions.value = suggestions
+            }
         }
     }
 
@@ -83,6 +110,7 @@ class SearchSuggestionsViewModel(application: Application) : AndroidViewModel(ap
     fun refresh() {
         val engine = preferences.getSearchEngine()
         fetcher.updateSearchEngine(engine)
+        LocalSuggestions.initialize(getApplication<Application>())
         updateState()
     }
 
@@ -101,6 +129,12 @@ class SearchSuggestionsViewModel(application: Application) : AndroidViewModel(ap
             State.Disabled(givePrompt)
         }
 
+        val changed = state != _state.value
         _state.value = state
+
+        if (changed) {
+            // The list may show the suggestions of the other source.
+            searchQuery.value?.let { requestSuggestions(it) }
+        }
     }
 }
@@ -0,0 +1,91 @@
+/* This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/. */
+
+package org.mozilla.focus.searchsuggestions
+
+/**
+ * In-memory LRU cache of the search suggestions we received for a (search engine, query) pair.
+ * Retyping or deleting characters of a query would otherwise fetch the same suggestions again.
+ *
+ * The cache only lives in memory and is cleared when the user erases their browsing session.
+ */
+object SuggestionCache {
+    private const val MAX_ENTRIES = 100
+
+    private val entries = object : LinkedHashMap<String, List<String>>(16, 0.75f, true) {
+        override fun removeEldestEntry(eldest: MutableMap.MutableEntry<String, List<String>>?): Boolean =
+            size > MAX_ENTRIES
+    }
+
+    /**
+     * Incremented on every [clear]. A fetch captures it before it starts, so that its result is not
+     * cached if the browsing session has been erased in the meantime.
+     */
+    @get:Synchronized
+    var epoch = 0
+        private set
+
+    private var lookups = 0
+    private var exactHits = 0
+    private var prefixHits = 0
+
+    /**
+     * Returns the cached suggestions for exactly this query or null.
+     */
+    @Synchronized
+    fun get(engineId: String, query: String): List<String>? {
+        lookups++
+        return entries[key(engineId, query)]?.also { exactHits++ }
+    }
+
+    /**
+     * Returns the suggestions of the longest cached query that [query] starts with, filtered to
+     * those that still match [query], or null if there are none. The result is an approximation
+     * that can be shown until the actual suggestions for [query] have been fetched.
+     */
+    @Synchronized
+    fun getPrefixMatch(engineId: String, query: String): List<String>? {
+        for (length in query.length - 1 downTo 1) {
+            val cached = entries[key(engineId, query.substring(0, length))] ?: continue
+
+            val filtered = cached.filter { it.startsWith(query, ignoreCase = true) }
+            if (filtered.isEmpty()) {
+                return null
+            }
+
+            prefixHits++
+            return filtered
+        }
+
+        return null
+    }
+
+    /**
+     * Cache the suggestions for this query, unless the cache has been cleared since [epoch].
+     */
+    @Synchronized
+    fun put(engineId: String, query: String, suggestions: List<String>, epoch: Int = this.epoch) {
+        if (epoch == this.epoch) {
+            entries[key(engineId, query)] = suggestions
+        }
+    }
+
+    @Synchronized
+    fun clear() {
+        epoch++
+        entries.clear()
+    }
+
+    /**
+     * Exact hits saved a network round-trip, prefix hits only let us show suggestions earlier.
+     */
+    @Synchronized
+    fun report(): String {
+        val hitRate = if (lookups > 0) 100 * exactHits / lookups else 0
+        return "entries=${entries.size} lookups=$lookups hit rate=$hitRate% " +
+            "saved round-trips=$exactHits prefix hits=$prefixHits"
+    }
+
+    private fun key(engineId: String, query: String) = "$engineId\n$query"
+}
@@ -7,12 +7,15 @@ package org.mozilla.focus.searchsuggestions.ui
 import android.arch.lifecycle.Observer
 import android.arch.lifecycle.ViewModelProviders
 import android.graphics.Color
+import android.graphics.Typeface
+import android.graphics.drawable.Drawable
 import android.os.Bundle
 import android.support.v4.app.Fragment
 import android.support.v4.content.ContextCompat
 import android.support.v7.util.DiffUtil
 import android.support.v7.widget.LinearLayoutManager
 import android.support.v7.widget.RecyclerView
+import android.text.Spannable
 import android.text.SpannableString
 import android.text.SpannableStringBuilder
 import android.text.Spanned
@@ -20,20 +23,26 @@ import android.text.TextPaint
 import android.text.method.LinkMovementMethod
 import android.text.style.ClickableSpan
 import android.text.style.ForegroundColorSpan
+import android.text.style.StyleSpan
 import android.view.LayoutInflater
 import android.view.View
 import android.view.ViewGroup
 import android.widget.TextView
 import kotlinx.android.synthetic.main.fragment_search_suggestions.*
-import kotlinx.coroutines.experimental.CommonPool
+import kotlinx.coroutines.experimental.CoroutineStart
+import kotlinx.coroutines.experimental.Job
 import kotlinx.coroutines.experimental.android.UI
+import kotlinx.coroutines.experimental.async
+import kotlinx.coroutines.experimental.asCoroutineDispatcher
 import kotlinx.coroutines.experimental.launch
 import mozilla.components.browser.session.Session
 import org.mozilla.focus.R
 import org.mozilla.focus.ext.components
 import org.mozilla.focus.searchsuggestions.SearchSuggestionsViewModel
 import org.mozilla.focus.searchsuggestions.State
+import org.mozilla.focus.searchsuggestions.Suggestion
 import org.mozilla.focus.utils.SupportUtils
+import org.mozilla.focus.utils.TaskScheduler
 import org.mozilla.focus.utils.UrlUtils
 
 class SearchSuggestionsFragment : Fragment() {
@@ -66,11 +75,9 @@ class SearchSuggestionsFragment : Fragment() {
         searchSuggestionsViewModel.state.observe(this, Observer { state ->
             enable_search_suggestions_container.visibility = View.GONE
             no_suggestions_container.visibility = View.GONE
-            suggestionList.visibility = View.GONE
 
+            // Without suggestions from the search engine the list shows the local suggestions.
             when (state) {
-                is State.ReadyForSuggestions ->
-                    suggestionList.visibility = View.VISIBLE
                 is State.NoSuggestionsAPI ->
                     no_suggestions_container.visibility = if (state.givePrompt) {
                         View.VISIBLE
@@ -163,27 +170,45 @@ class SearchSuggestionsFragment : Fragment() {
         private val clickListener: (String) -> Unit
     ) : RecyclerView.Adapter<RecyclerView.ViewHolder>() {
         inner class DiffCallback(
-            private val oldSuggestions: List<SpannableStringBuilder>,
-            private val newSuggestions: List<SpannableStringBuilder>
+            private val oldSuggestions: List<Suggestion>,
+            private val newSuggestions: List<Suggestion>
         ) : DiffUtil.Callback() {
             override fun getOldListSize(): Int = oldSuggestions.size
             override fun getNewListSize(): Int = newSuggestions.size
-            override fun areItemsTheSame(p0: Int, p1: Int): Boolean = true
+            override fun areItemsTheSame(p0: Int, p1: Int): Boolean =
+                    oldSuggestions[p0].text == newSuggestions[p1].text
             override fun areContentsTheSame(p0: Int, p1: Int): Boolean =
                     oldSuggestions[p0] == newSuggestions[p1]
             override fun getChangePayload(oldItemPosition: Int, newItemPosition: Int): Any? =
                     newSuggestions[newItemPosition]
         }
 
-        private var suggestions: List<SpannableStringBuilder> = listOf()
+        // Diffs are calculated one at a time. A diff that has been superseded by a newer list is
+        // skipped (or dropped if it is already done), so the lists are always applied in order.
+        private val diffDispatcher = TaskScheduler.serial(TaskScheduler.Lane.USER_BLOCKING).asCoroutineDispatcher()
+        private var diffJob: Job? = null
+        @Volatile private var generation = 0
 
-        fun refresh(suggestions: List<SpannableStringBuilder>) {
-            launch(CommonPool) {
-                val result = DiffUtil.calculateDiff(DiffCallback(this@SuggestionsAdapter.suggestions, suggestions))
+        private var suggestions: List<Suggestion> = listOf()
 
-                launch(UI) {
-                    result.dispatchUpdatesTo(this@SuggestionsAdapter)
+        fun refresh(suggestions: List<Suggestion>) {
+            diffJob?.cancel()
+
+            val generation = ++this.generation
+            val oldSuggestions = this.suggestions
+
+            diffJob = launch(UI, CoroutineStart.UNDISPATCHED) {
+                val result = async(diffDispatcher) {
+                    if (generation == this@SuggestionsAdapter.generation) {
+                        DiffUtil.calculateDiff(DiffCallback(oldSuggestions, suggestions))
+                    } else {
+                        null
+                    }
+                }.await()
+
+                if (result != null && generation == this@SuggestionsAdapter.generation) {
                     this@SuggestionsAdapter.suggestions = suggestions
+                    result.dispatchUpdatesTo(this@SuggestionsAdapter)
                 }
             }
         }
@@ -192,7 +217,7 @@ class SearchSuggestionsFragment : Fragment() {
             if (payloads.isEmpty()) {
                 super.onBindViewHolder(holder, position, payloads)
             } else {
-                val payload = payloads[0] as? SpannableStringBuilder ?: return
+                val payload = payloads[payloads.size - 1] as? Suggestion ?: return
                 val view = holder as? SuggestionViewHolder ?: return
                 view.bind(payload)
             }
@@ -231,8 +256,16 @@ private class SuggestionViewHolder(
 
     val suggestionText: TextView = itemView.findViewById(R.id.suggestion)
 
-    fun bind(suggestion: SpannableStringBuilder) {
-        suggestionText.text = suggestion
+    // Reused for every suggestion this row shows. The TextView keeps a copy of the text.
+    private val text = SpannableStringBuilder()
+    private val highlight = StyleSpan(Typeface.BOLD)
+
+    private val linkIcon: Drawable?
+    private val searchIcon: Drawable?
+
+    private var suggestion: Suggestion? = null
+
+    init {
         suggestionText.setPaddingRelative(
             itemView.resources.getDimensionPixelSize(R.dimen.search_suggestions_padding_with_icon),
             0,
@@ -248,17 +281,29 @@ private class SuggestionViewHolder(
 
         val size = itemView.resources.getDimension(R.dimen.preference_icon_drawable_size).toInt()
 
-        if (UrlUtils.isUrl(suggestionText.text.toString())) {
-            val icon = ContextCompat.getDrawable(itemView.context, R.drawable.ic_link)
-            icon?.setBounds(0, 0, size, size)
-            suggestionText.contentDescription = suggestionText.text
-            suggestionText.setCompoundDrawables(icon, null, null, null)
+        linkIcon = ContextCompat.getDrawable(itemView.context, R.drawable.ic_link)
+        linkIcon?.setBounds(0, 0, size, size)
+        searchIcon = ContextCompat.getDrawable(itemView.context, R.drawable.ic_search)
+        searchIcon?.setBounds(0, 0, size, size)
+
+        itemView.setOnClickListener { suggestion?.let { clickListener(it.text) } }
+    }
+
+    fun bind(suggestion: Suggestion) {
+        this.suggestion = suggestion
+
+        text.clear()
+        text.clearSpans()
+        text.append(suggestion.text)
+        text.setSpan(highlight, 0, suggestion.highlightLength, Spannable.SPAN_EXCLUSIVE_EXCLUSIVE)
+        suggestionText.text = text
+
+        if (UrlUtils.isUrl(suggestion.text)) {
+            suggestionText.contentDescription = suggestion.text
+            suggestionText.setCompoundDrawables(linkIcon, null, null, null)
         } else {
-            val icon = ContextCompat.getDrawable(itemView.context, R.drawable.ic_search)
-            icon?.setBounds(0, 0, size, size)
-            suggestionText.contentDescription = itemView.context.getString(R.string.search_hint, suggestionText.text)
-            suggestionText.setCompoundDrawables(icon, null, null, null)
+            suggestionText.contentDescription = itemView.context.getString(R.string.search_hint, suggestion.text)
+            suggestionText.setCompoundDrawables(searchIcon, null, null, null)
         }
-        itemView.setOnClickListener { clickListener(suggestion.toString()) }
     }
 }
@@ -11,6 +11,7 @@ import android.content.Context;
 import android.os.Bundle;
 
 import org.mozilla.focus.FocusApplication;
+import org.mozilla.focus.utils.BrowsersCache;
 
 /**
  * This ActivityLifecycleCallbacks implementations tracks if there is at least one activity in the
@@ -35,6 +36,11 @@ public class VisibilityLifeCycleCallback implements Application.ActivityLifecycl
      */
     private int activitiesInStartedState;
 
+    /**
+     * Whether all activities have been stopped since the app was started.
+     */
+    private boolean hasBeenInBackground;
+
     public VisibilityLifeCycleCallback(Context context) {
         this.context = context;
     }
@@ -54,12 +60,21 @@ public class VisibilityLifeCycleCallback implements Application.ActivityLifecycl
 
     @Override
     public void onActivityStarted(Activity activity) {
+        if (activitiesInStartedState == 0 && hasBeenInBackground) {
+            // The user may have changed the default browser while we were in the background.
+            BrowsersCache.refresh(context);
+        }
+
         activitiesInStartedState++;
     }
 
     @Override
     public void onActivityStopped(Activity activity) {
         activitiesInStartedState--;
+
+        if (activitiesInStartedState == 0) {
+            hasBeenInBackground = true;
+        }
     }
 
     @Override
@@ -6,13 +6,23 @@ package org.mozilla.focus.settings
 
 import android.content.SharedPreferences
 import android.os.Bundle
+import android.support.v7.app.AlertDialog
+import android.support.v7.preference.Preference
 import android.support.v7.preference.PreferenceFragmentCompat
 import android.support.v7.preference.SwitchPreferenceCompat
+import android.widget.Toast
 import com.jakewharton.processphoenix.ProcessPhoenix
+import kotlinx.coroutines.experimental.android.UI
 import kotlinx.coroutines.experimental.launch
-import org.mozilla.focus.IO
 import org.mozilla.focus.R
+import org.mozilla.focus.searchsuggestions.SuggestionCache
+import org.mozilla.focus.startup.StartupTrace
+import org.mozilla.focus.startup.TraceConfig
+import org.mozilla.focus.telemetry.KeystrokeTimings
+import org.mozilla.focus.telemetry.NavigationTimings
 import org.mozilla.focus.utils.AppConstants
+import org.mozilla.focus.utils.HttpClients
+import org.mozilla.focus.utils.TaskScheduler
 import org.mozilla.focus.utils.app
 import org.mozilla.focus.utils.geckoEngineExperimentDescriptor
 import org.mozilla.focus.web.Config
@@ -22,6 +32,11 @@ class ExperimentsSettingsFragment : PreferenceFragmentCompat(),
         SharedPreferences.OnSharedPreferenceChangeListener {
     companion object {
         const val FRAGMENT_TAG = "ExperimentSettings"
+        private const val DUMP_STARTUP_TRACE_KEY = "dump_startup_trace"
+        private const val NAVIGATION_TIMINGS_KEY = "navigation_timings"
+        private const val SUGGESTION_CACHE_KEY = "suggestion_cache"
+        private const val HTTP_CONNECTIONS_KEY = "http_connections"
+        private const val KEYSTROKE_TIMINGS_KEY = "keystroke_timings"
     }
 
     private var enginePref: SwitchPreferenceCompat? = null
@@ -30,6 +45,46 @@ class ExperimentsSettingsFragment : PreferenceFragmentCompat(),
         addPreferencesFromResource(R.xml.experiments_settings)
         enginePref = preferenceManager!!.findPreference(ENGINE_PREF_STRING_KEY) as SwitchPreferenceCompat?
         enginePref?.isChecked = AppConstants.isGeckoBuild
+
+        preferenceManager!!.findPreference(DUMP_STARTUP_TRACE_KEY)?.isVisible = TraceConfig.ENABLED
+    }
+
+    override fun onPreferenceTreeClick(preference: Preference?): Boolean {
+        if (preference?.key == DUMP_STARTUP_TRACE_KEY) {
+            val context = requireContext().applicationContext
+            launch(TaskScheduler.deferrable) {
+                val file = StartupTrace.dump(context)
+                launch(UI) {
+                    Toast.makeText(context, "Startup trace written to $file", Toast.LENGTH_LONG).show()
+                }
+            }
+            return true
+        }
+        if (preference?.key == NAVIGATION_TIMINGS_KEY) {
+            showReport(preference?.title, NavigationTimings.report())
+            return true
+        }
+        if (preference?.key == SUGGESTION_CACHE_KEY) {
+            showReport(preference?.title, SuggestionCache.report())
+            return true
+        }
+        if (preference?.key == HTTP_CONNECTIONS_KEY) {
+            showReport(preference?.title, HttpClients.report())
+            return true
+        }
+        if (preference?.key == KEYSTROKE_TIMINGS_KEY) {
+            showReport(preference?.title, KeystrokeTimings.report())
+            return true
+        }
+        return super.onPreferenceTreeClick(preference)
+    }
+
+    private fun showReport(title: CharSequence?, report: String) {
+        AlertDialog.Builder(requireContext())
+            .setTitle(title)
+            .setMessage(report)
+            .setPositiveButton(android.R.string.ok, null)
+            .show()
     }
 
     override fun onResume() {
@@ -48,10 +103,10 @@ class ExperimentsSettingsFragment : PreferenceFragmentCompat(),
                 val newValue = sharedPreferences!!.getBoolean(key, Config.DEFAULT_NEW_RENDERER)
                 if (AppConstants.isGeckoBuild != newValue) {
                     val app = activity!!.app
-                    launch(IO) {
-                        activity!!.app.fretboard.setOverrideNow(
-                            activity!!.app, geckoEngineExperimentDescriptor, newValue
-                        )
+                    launch(TaskScheduler.userBlocking) {
+                        app.fretboard.setOverrideNow(app, geckoEngineExperimentDescriptor, newValue)
+                        app.refreshExperimentSnapshot()
+
                         val launcherIntent = app.packageManager?.getLaunchIntentForPackage(app.packageName)
                         ProcessPhoenix.triggerRebirth(app, launcherIntent)
                     }
@@ -17,19 +17,20 @@ import android.view.MenuInflater
 import android.view.MenuItem
 import android.view.ViewGroup
 import android.widget.EditText
+import okhttp3.Request
 import org.mozilla.focus.R
 import org.mozilla.focus.R.string.action_option_add_search_engine
 import org.mozilla.focus.activity.InfoActivity
 import org.mozilla.focus.search.CustomSearchEngineStore
 import org.mozilla.focus.search.ManualAddSearchEnginePreference
 import org.mozilla.focus.telemetry.TelemetryWrapper
+import org.mozilla.focus.utils.HttpClients
 import org.mozilla.focus.utils.Settings
 import org.mozilla.focus.utils.SupportUtils
 import org.mozilla.focus.utils.UrlUtils
 import org.mozilla.focus.utils.ViewUtils
 import java.io.IOException
 import java.lang.ref.WeakReference
-import java.net.HttpURLConnection
 import java.net.MalformedURLException
 import java.net.URL
 
@@ -184,22 +185,19 @@ class ManualAddSearchEngineSettingsFragment : BaseSettingsFragment() {
                 return false
             }
 
-            val connection = searchURL.openConnection() as HttpURLConnection
-            connection.instanceFollowRedirects = true
-            connection.connectTimeout = SEARCH_QUERY_VALIDATION_TIMEOUT_MILLIS
-            connection.readTimeout = SEARCH_QUERY_VALIDATION_TIMEOUT_MILLIS
+            val request = try { Request.Builder().url(searchURL).build() } catch (e: IllegalArgumentException) {
+                Log.d(LOGTAG, "Failure to get response code from server: returning invalid search query")
+                return false
+            }
 
             return try {
-                connection.responseCode < VALID_RESPONSE_CODE_UPPER_BOUND
+                HttpClients.withTimeout(SEARCH_QUERY_VALIDATION_TIMEOUT_MILLIS.toLong())
+                    .newCall(request)
+                    .execute()
+                    .use { it.code() < VALID_RESPONSE_CODE_UPPER_BOUND }
             } catch (e: IOException) {
                 Log.d(LOGTAG, "Failure to get response code from server: returning invalid search query")
                 false
-            } finally {
-                try { connection.inputStream.close() } catch (_: IOException) {
-                    Log.d(LOGTAG, "connection.inputStream failed to close")
-                }
-
-                connection.disconnect()
             }
         }
     }
@@ -212,11 +210,17 @@ class ManualAddSearchEngineSettingsFragment : BaseSettingsFragment() {
         ) : AsyncTask<Void, Void, Boolean>() {
 
         private val fragmentWeakReference = WeakReference(fragment)
+        private val applicationContext = fragment.requireContext().applicationContext
 
         override fun doInBackground(vararg p0: Void?): Boolean {
             val isValidSearchQuery = isValidSearchQueryURL(query)
             TelemetryWrapper.saveCustomSearchEngineEvent(isValidSearchQuery)
 
+            if (isValidSearchQuery && !isCancelled) {
+                // Writes the icon of the engine to disk.
+                CustomSearchEngineStore.addSearchEngine(applicationContext, engineName, query)
+            }
+
             return isValidSearchQuery
         }
 
@@ -235,7 +239,6 @@ class ManualAddSearchEngineSettingsFragment : BaseSettingsFragment() {
             }
 
             if (isValidSearchQuery) {
-                CustomSearchEngineStore.addSearchEngine(fragment.activity!!, engineName, query)
                 Snackbar.make(fragment.view!!, R.string.search_add_confirmation, Snackbar.LENGTH_SHORT).show()
                 Settings.getInstance(fragment.activity!!).setDefaultSearchEngineByName(engineName)
                 fragment.fragmentManager!!.popBackStack()
@@ -0,0 +1,173 @@
+/* This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/. */
+
+package org.mozilla.focus.startup
+
+import android.os.Handler
+import android.os.Looper
+import android.os.SystemClock
+import android.support.annotation.MainThread
+import android.util.Log
+import java.util.concurrent.ExecutorService
+import java.util.concurrent.LinkedBlockingQueue
+import java.util.concurrent.atomic.AtomicInteger
+
+/**
+ * Runs the initializers of the application as a dependency graph: Every task declares the tasks
+ * it depends on, whether it needs to run on the main thread and whether the first frame needs it
+ * ("blocking"). Background tasks run in parallel on the given (bounded) executor.
+ *
+ * [run] returns as soon as all blocking tasks have completed. Main thread tasks that are not
+ * blocking are posted to the main thread and run after onCreate() has returned.
+ */
+class StartupScheduler(
+    private val executor: ExecutorService
+) {
+    class Task(
+        val name: String,
+        val dependsOn: List<String> = emptyList(),
+        val mainThread: Boolean = false,
+        val blocking: Boolean = true,
+        val action: () -> Unit
+    )
+
+    private class Node(val task: Task) {
+        val dependents = mutableListOf<Node>()
+        val pendingDependencies = AtomicInteger(task.dependsOn.size)
+        @Volatile var duration: Long = -1
+    }
+
+    private val nodes = LinkedHashMap<String, Node>()
+    private val mainQueue = LinkedBlockingQueue<Runnable>()
+    private val mainHandler = Handler(Looper.getMainLooper())
+    private val remainingBlocking = AtomicInteger(0)
+    private val remainingTasks = AtomicInteger(0)
+    @Volatile private var failure: Throwable? = null
+
+    /**
+     * Time (in ms) each task took to run, for tasks that have completed.
+     */
+    val timings: Map<String, Long>
+        get() = nodes.values.filter { it.duration >= 0 }.associate { it.task.name to it.duration }
+
+    fun add(task: Task): StartupScheduler {
+        if (nodes.containsKey(task.name)) {
+            throw IllegalArgumentException("Duplicate startup task: ${task.name}")
+        }
+        nodes[task.name] = Node(task)
+        return this
+    }
+
+    @MainThread
+    fun run() {
+        validate()
+
+        remainingTasks.set(nodes.size)
+        remainingBlocking.set(nodes.values.count { it.task.blocking })
+
+        val start = SystemClock.elapsedRealtime()
+
+        nodes.values
+            .filter { it.task.dependsOn.isEmpty() }
+            .forEach { schedule(it) }
+
+        // Run blocking main thread tasks as soon as they become ready, until all blocking work is done.
+        while (remainingBlocking.get() > 0) {
+            mainQueue.take().run()
+            failure?.let { throw IllegalStateException("Startup task failed", it) }
+        }
+
+        Log.d(LOG_TAG, "Blocking startup tasks completed in ${SystemClock.elapsedRealtime() - start} ms: $timings")
+    }
+
+    private fun validate() {
+        nodes.values.forEach { node ->
+            node.task.dependsOn.forEach { dependencyName ->
+                val dependency = nodes[dependencyName]
+                    ?: throw IllegalStateException("${node.task.name} depends on unknown task $dependencyName")
+
+                if (node.task.blocking && !dependency.task.blocking) {
+                    throw IllegalStateException(
+                        "Blocking task ${node.task.name} can't depend on non-blocking task $dependencyName")
+                }
+
+                dependency.dependents.add(node)
+            }
+        }
+
+        // Kahn's algorithm: if we can't visit every node then there's a cycle.
+        val inDegree = nodes.mapValues { it.value.task.dependsOn.size }.toMutableMap()
+        val ready = inDegree.filter { it.value == 0 }.keys.toMutableList()
+        var visited = 0
+        while (ready.isNotEmpty()) {
+            val name = ready.removeAt(ready.size - 1)
+            visited++
+            nodes[name]!!.dependents.forEach {
+                val remaining = inDegree[it.task.name]!! - 1
+                inDegree[it.task.name] = remaining
+                if (remaining == 0) {
+                    ready.add(it.task.name)
+                }
+            }
+        }
+
+        if (visited != nodes.size) {
+            throw IllegalStateException("Startup tasks contain a dependency cycle")
+        }
+    }
+
+    private fun schedule(node: Node) {
+        val runnable = Runnable { execute(node) }
+
+        when {
+            !node.task.mainThread -> executor.execute(runnable)
+            node.task.blocking -> mainQueue.add(runnable)
+            else -> mainHandler.post(runnable)
+        }
+    }
+
+    private fun execute(node: Node) {
+        val start = SystemClock.elapsedRealtime()
+
+        try {
+            StartupTrace.trace("startup:${node.task.name}", node.task.action)
+        } catch (e: Throwable) {
+            onTaskFailed(node, e)
+            return
+        }
+
+        node.duration = SystemClock.elapsedRealtime() - start
+
+        node.dependents.forEach {
+            if (it.pendingDependencies.decrementAndGet() == 0) {
+                schedule(it)
+            }
+        }
+
+        if (node.task.blocking && remainingBlocking.decrementAndGet() == 0) {
+            // Wake up the main thread (in case it is waiting for a background task).
+            mainQueue.add(Runnable { })
+        }
+
+        if (remainingTasks.decrementAndGet() == 0) {
+            executor.shutdown()
+        }
+    }
+
+    private fun onTaskFailed(node: Node, e: Throwable) {
+        Log.e(LOG_TAG, "Startup task ${node.task.name} failed", e)
+
+        if (node.task.blocking) {
+            failure = e
+            mainQueue.add(Runnable { })
+        } else {
+            // Crash like we would have done if this had run on the main thread.
+            mainHandler.post { throw IllegalStateException("Startup task ${node.task.name} failed", e) }
+        }
+    }
+
+    companion object {
+        private const val LOG_TAG = "StartupScheduler"
+    }
+}
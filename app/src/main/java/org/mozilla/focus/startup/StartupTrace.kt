@@ -0,0 +1,85 @@
+/* This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/. */
+
+package org.mozilla.focus.startup
+
+import android.content.Context
+import android.os.Process
+import java.io.File
+import java.util.Collections
+
+/**
+ * Lightweight trace markers for the startup path. Events are recorded into a [TraceBuffer] and can
+ * be dumped as a Chrome trace file (see [dump]).
+ *
+ * Tracing is only enabled in builds where [TraceConfig.ENABLED] is true. In all other builds the
+ * checks below are constant and the markers compile down to calling the traced block.
+ */
+object StartupTrace {
+    private const val TRACE_FILE_NAME = "startup_trace.json"
+
+    private val buffer = TraceBuffer()
+
+    private val recordedOnce = Collections.synchronizedSet(HashSet<String>())
+
+    /**
+     * Record the time it takes to run [block].
+     */
+    inline fun <T> trace(name: String, block: () -> T): T {
+        if (!TraceConfig.ENABLED) {
+            return block()
+        }
+
+        val start = begin()
+        try {
+            return block()
+        } finally {
+            end(name, start)
+        }
+    }
+
+    /**
+     * Like [trace] but only records the first call with the given name (e.g. "first WebView").
+     */
+    inline fun <T> traceFirst(name: String, block: () -> T): T {
+        if (!TraceConfig.ENABLED || !markRecorded(name)) {
+            return block()
+        }
+
+        return trace(name, block)
+    }
+
+    /**
+     * Start an event. The returned value needs to be passed to [end].
+     */
+    @JvmStatic
+    fun begin(): Long = if (TraceConfig.ENABLED) System.nanoTime() else 0
+
+    @JvmStatic
+    fun end(name: String, start: Long) {
+        if (!TraceConfig.ENABLED) {
+            return
+        }
+
+        val thread = Thread.currentThread()
+        buffer.record(name, start, System.nanoTime() - start, thread.id, thread.name)
+    }
+
+    @PublishedApi
+    internal fun markRecorded(name: String): Boolean = recordedOnce.add(name)
+
+    /**
+     * Write all recorded events to a Chrome trace JSON file in the app's cache directory.
+     * Returns the file or null if tracing is disabled in this build.
+     */
+    fun dump(context: Context): File? {
+        if (!TraceConfig.ENABLED) {
+            return null
+        }
+
+        val file = File(context.cacheDir, TRACE_FILE_NAME)
+        file.writeText(buffer.toChromeTraceJson(Process.myPid()))
+        return file
+    }
+}
@@ -0,0 +1,104 @@
+/* This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/. */
+
+package org.mozilla.focus.startup
+
+/**
+ * A fixed size ring buffer of trace events. Once the buffer is full the oldest events are
+ * overwritten, so recording never allocates more than the buffer and never blocks for long.
+ *
+ * The content can be written in the Chrome trace event format and opened in chrome://tracing.
+ */
+class TraceBuffer(private val capacity: Int = DEFAULT_CAPACITY) {
+    private class Event(
+        val name: String,
+        val startNanos: Long,
+        val durationNanos: Long,
+        val threadId: Long,
+        val threadName: String
+    )
+
+    private val events = arrayOfNulls<Event>(capacity)
+    private var next = 0
+    private var count = 0
+
+    val size: Int
+        @Synchronized get() = count
+
+    @Synchronized
+    fun record(name: String, startNanos: Long, durationNanos: Long, threadId: Long, threadName: String) {
+        events[next] = Event(name, startNanos, durationNanos, threadId, threadName)
+        next = (next + 1) % capacity
+        count = Math.min(count + 1, capacity)
+    }
+
+    @Synchronized
+    fun clear() {
+        events.fill(null)
+        next = 0
+        count = 0
+    }
+
+    /**
+     * Write all recorded events (oldest first) as Chrome trace JSON. Timestamps are in
+     * microseconds, as expected by the trace viewer.
+     */
+    fun toChromeTraceJson(processId: Int): String {
+        val snapshot = synchronized(this) {
+            (0 until count).map { events[(next - count + it + capacity) % capacity]!! }
+        }
+
+        val builder = StringBuilder()
+        builder.append("{\"traceEvents\":[")
+
+        val threadNames = LinkedHashMap<Long, String>()
+        snapshot.forEach { threadNames[it.threadId] = it.threadName }
+
+        var first = true
+        threadNames.forEach { (threadId, threadName) ->
+            if (!first) builder.append(',')
+            first = false
+
+            builder.append("{\"name\":\"thread_name\",\"ph\":\"M\",\"pid\":").append(processId)
+                .append(",\"tid\":").append(threadId)
+                .append(",\"args\":{\"name\":").append(quote(threadName)).append("}}")
+        }
+
+        snapshot.forEach {
+            if (!first) builder.append(',')
+            first = false
+
+            builder.append("{\"name\":").append(quote(it.name))
+                .append(",\"ph\":\"X\",\"pid\":").append(processId)
+                .append(",\"tid\":").append(it.threadId)
+                .append(",\"ts\":").append(it.startNanos / NANOS_PER_MICRO)
+                .append(",\"dur\":").append(it.durationNanos / NANOS_PER_MICRO)
+                .append('}')
+        }
+
+        builder.append("]}")
+
+        return builder.toString()
+    }
+
+    private fun quote(value: String): String {
+        val builder = StringBuilder(value.length + 2)
+        builder.append('"')
+        value.forEach {
+            when {
+                it == '"' -> builder.append("\\\"")
+                it == '\\' -> builder.append("\\\\")
+                it < ' ' -> builder.append(String.format("\\u%04x", it.toInt()))
+                else -> builder.append(it)
+            }
+        }
+        builder.append('"')
+        return builder.toString()
+    }
+
+    companion object {
+        private const val DEFAULT_CAPACITY = 256
+        private const val NANOS_PER_MICRO = 1000
+    }
+}
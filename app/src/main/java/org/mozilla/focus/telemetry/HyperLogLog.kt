@@ -0,0 +1,81 @@
+/* This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/. */
+
+package org.mozilla.focus.telemetry
+
+/**
+ * A HyperLogLog sketch for counting distinct strings (e.g. visited domains) without storing them.
+ *
+ * Only the hashes' leading zero counts are kept, in 1024 one byte registers. The standard error of
+ * [estimate] is about 3% and memory usage does not grow with the number of added values.
+ */
+class HyperLogLog {
+    private val registers = ByteArray(REGISTER_COUNT)
+
+    fun add(value: String) {
+        val hash = hash(value)
+
+        val index = (hash ushr (64 - PRECISION)).toInt()
+        // Position of the first set bit in the remaining bits (1-based).
+        val rank = java.lang.Long.numberOfLeadingZeros((hash shl PRECISION) or (1L shl (PRECISION - 1))) + 1
+
+        if (rank > registers[index]) {
+            registers[index] = rank.toByte()
+        }
+    }
+
+    fun estimate(): Long {
+        var sum = 0.0
+        var zeroRegisters = 0
+
+        for (register in registers) {
+            sum += 1.0 / (1L shl register.toInt())
+            if (register.toInt() == 0) {
+                zeroRegisters++
+            }
+        }
+
+        val rawEstimate = ALPHA * REGISTER_COUNT * REGISTER_COUNT / sum
+
+        // For small cardinalities linear counting is more accurate.
+        val estimate = if (rawEstimate <= 2.5 * REGISTER_COUNT && zeroRegisters > 0) {
+            REGISTER_COUNT * Math.log(REGISTER_COUNT.toDouble() / zeroRegisters)
+        } else {
+            rawEstimate
+        }
+
+        return Math.round(estimate)
+    }
+
+    fun clear() {
+        registers.fill(0)
+    }
+
+    companion object {
+        private const val PRECISION = 10
+        private const val REGISTER_COUNT = 1 shl PRECISION
+        private const val ALPHA = 0.7213 / (1 + 1.079 / REGISTER_COUNT)
+
+        private const val FNV_OFFSET_BASIS = -0x340d631b7bdddcdbL
+        private const val FNV_PRIME = 0x100000001b3L
+
+        /**
+         * 64 bit FNV-1a followed by the MurmurHash3 finalizer, which spreads the bits of similar
+         * inputs (e.g. "a.com" and "b.com") over the whole hash.
+         */
+        internal fun hash(value: String): Long {
+            var hash = FNV_OFFSET_BASIS
+            for (char in value) {
+                hash = (hash xor char.toLong()) * FNV_PRIME
+            }
+
+            hash = hash xor (hash ushr 33)
+            hash *= -0xae502812aa7333L
+            hash = hash xor (hash ushr 33)
+            hash *= -0x3b314601e57a13adL
+            hash = hash xor (hash ushr 33)
+            return hash
+        }
+    }
+}
@@ -0,0 +1,62 @@
+/* This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/. */
+
+package org.mozilla.focus.telemetry
+
+/**
+ * Measures how much of the 16 ms frame budget we spend on the main thread for every keystroke in
+ * the URL bar and how long it takes until the autocomplete result of a keystroke is shown.
+ */
+object KeystrokeTimings {
+    private const val FRAME_BUDGET_MICROS = 16_000L
+    private const val NANOS_PER_MICRO = 1000L
+    private const val NANOS_PER_MILLI = 1_000_000L
+
+    // Main thread time is recorded in µs: Most keystrokes take well below a millisecond.
+    private val mainThreadMicros = LoadTimeHistogram()
+    private val resultLatencyMs = LoadTimeHistogram()
+
+    private var overBudget = 0
+    private var droppedResults = 0
+
+    @Synchronized
+    fun recordMainThread(durationNanos: Long) {
+        val micros = durationNanos / NANOS_PER_MICRO
+        mainThreadMicros.record(micros)
+        if (micros > FRAME_BUDGET_MICROS) {
+            overBudget++
+        }
+    }
+
+    /**
+     * The autocomplete result of a keystroke has been applied [latencyNanos] after the keystroke.
+     */
+    @Synchronized
+    fun recordResult(latencyNanos: Long) {
+        resultLatencyMs.record(latencyNanos / NANOS_PER_MILLI)
+    }
+
+    /**
+     * The result of a keystroke was not applied because a newer keystroke superseded it.
+     */
+    @Synchronized
+    fun recordDroppedResult() {
+        droppedResults++
+    }
+
+    @Synchronized
+    fun report(): String {
+        val keystrokes = mainThreadMicros.count
+        if (keystrokes == 0) {
+            return "No keystrokes recorded"
+        }
+
+        return "keystrokes=$keystrokes over 16 ms budget=$overBudget\n" +
+            "main thread µs: p50=${mainThreadMicros.percentile(50.0)} " +
+            "p90=${mainThreadMicros.percentile(90.0)} p99=${mainThreadMicros.percentile(99.0)}\n" +
+            "autocomplete result ms: p50=${resultLatencyMs.percentile(50.0)} " +
+            "p90=${resultLatencyMs.percentile(90.0)} p99=${resultLatencyMs.percentile(99.0)}\n" +
+            "dropped results=$droppedResults"
+    }
+}
@@ -0,0 +1,98 @@
+/* This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/. */
+
+package org.mozilla.focus.telemetry
+
+/**
+ * A log-linear (HDR style) histogram for load times in milliseconds.
+ *
+ * Values below 64 ms get a bucket of their own. Above that every power of two is split into 32
+ * linear buckets, so the width of a bucket is never more than 1/32 (~3%) of its value. This keeps
+ * percentiles accurate over the whole range (1 ms - 65 s) in a fixed array of 384 counters.
+ * Larger values are counted in the last bucket.
+ */
+class LoadTimeHistogram {
+    private val counts = IntArray(BUCKET_COUNT)
+
+    var count: Int = 0
+        private set
+
+    fun record(valueMs: Long) {
+        counts[bucketIndex(valueMs)]++
+        count++
+    }
+
+    /**
+     * Returns the value (in ms) below which the given percentage of recorded values fall, or -1
+     * if nothing has been recorded. The result is the middle of the bucket that contains the
+     * percentile.
+     */
+    fun percentile(percentile: Double): Long {
+        if (count == 0) {
+            return -1
+        }
+
+        val rank = Math.max(1, Math.ceil(percentile / 100 * count).toInt())
+
+        var seen = 0
+        for (index in counts.indices) {
+            seen += counts[index]
+            if (seen >= rank) {
+                return bucketLowerBound(index) + (bucketWidth(index) - 1) / 2
+            }
+        }
+
+        return bucketLowerBound(BUCKET_COUNT - 1)
+    }
+
+    /**
+     * Call [action] with the lower bound (in ms) and count of every bucket that is not empty.
+     */
+    fun forEachBucket(action: (lowerBoundMs: Long, count: Int) -> Unit) {
+        for (index in counts.indices) {
+            if (counts[index] > 0) {
+                action(bucketLowerBound(index), counts[index])
+            }
+        }
+    }
+
+    fun clear() {
+        counts.fill(0)
+        count = 0
+    }
+
+    companion object {
+        private const val SUB_BUCKET_BITS = 5
+        private const val SUB_BUCKET_COUNT = 1 shl SUB_BUCKET_BITS
+        private const val LINEAR_LIMIT = 2 * SUB_BUCKET_COUNT
+
+        const val MAX_VALUE_MS = (1L shl 16) - 1
+
+        internal val BUCKET_COUNT = bucketIndex(MAX_VALUE_MS) + 1
+
+        internal fun bucketIndex(valueMs: Long): Int {
+            val value = Math.min(Math.max(valueMs, 0), MAX_VALUE_MS)
+
+            if (value < LINEAR_LIMIT) {
+                return value.toInt()
+            }
+
+            val highestBit = 63 - java.lang.Long.numberOfLeadingZeros(value)
+            val shift = highestBit - SUB_BUCKET_BITS
+            return (shift * SUB_BUCKET_COUNT + (value shr shift)).toInt()
+        }
+
+        internal fun bucketLowerBound(index: Int): Long {
+            if (index < LINEAR_LIMIT) {
+                return index.toLong()
+            }
+
+            val shift = index / SUB_BUCKET_COUNT - 1
+            return (index - shift * SUB_BUCKET_COUNT).toLong() shl shift
+        }
+
+        private fun bucketWidth(index: Int): Long =
+            if (index < LINEAR_LIMIT) 1 else 1L shl (index / SUB_BUCKET_COUNT - 1)
+    }
+}
@@ -0,0 +1,215 @@
+/* This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/. */
+
+package org.mozilla.focus.telemetry
+
+import android.os.SystemClock
+import java.util.ArrayDeque
+import java.util.concurrent.atomic.AtomicInteger
+import java.util.concurrent.atomic.AtomicLong
+
+/**
+ * Timing of a single navigation. All times are in ms relative to the start of the navigation (the
+ * URL bar submit if there was one) or -1 if the step was not observed.
+ */
+data class NavigationTiming(
+    val urlBarSubmitted: Boolean,
+    val overrideUrlLoadingMs: Long,
+    val firstInterceptMs: Long,
+    val pageStartedMs: Long,
+    val firstProgressMs: Long,
+    val pageFinishedMs: Long,
+    val requestCount: Int,
+    val blockedCount: Int,
+    val matcherTimeMs: Long
+)
+
+/**
+ * Keeps the timings of the last navigations in a fixed size buffer and aggregates all of them into
+ * a histogram per step. This lets us see whether slow page loads are caused by the network, the
+ * engine or our own request interception (matcher time).
+ */
+object NavigationTimings {
+    private const val BUFFER_SIZE = 50
+    private const val SUBMIT_TIMEOUT_MS = 5000L
+    private const val NANOS_PER_MILLI = 1_000_000L
+
+    enum class Step(val label: String, val value: (NavigationTiming) -> Long) {
+        OVERRIDE_URL_LOADING("shouldOverrideUrlLoading", { it.overrideUrlLoadingMs }),
+        FIRST_INTERCEPT("first shouldInterceptRequest", { it.firstInterceptMs }),
+        PAGE_STARTED("onPageStarted", { it.pageStartedMs }),
+        FIRST_PROGRESS("first progress", { it.firstProgressMs }),
+        PAGE_FINISHED("onPageFinished", { it.pageFinishedMs }),
+        MATCHER_TIME("matcher time", { it.matcherTimeMs }),
+        BLOCKED_REQUESTS("blocked requests", { it.blockedCount.toLong() })
+    }
+
+    private val records = ArrayDeque<NavigationTiming>(BUFFER_SIZE)
+    private val histograms = Step.values().associate { it to LoadTimeHistogram() }
+
+    @Volatile
+    private var pendingSubmit: Long = -1
+
+    /**
+     * The user submitted a URL or search in the URL bar. The next navigation will be measured
+     * from this point.
+     */
+    @JvmStatic
+    @JvmOverloads
+    fun markUrlBarSubmit(now: Long = SystemClock.elapsedRealtime()) {
+        pendingSubmit = now
+    }
+
+    internal fun consumeUrlBarSubmit(now: Long): Long {
+        val submit = pendingSubmit
+        pendingSubmit = -1
+        return if (submit >= 0 && now - submit < SUBMIT_TIMEOUT_MS) submit else -1
+    }
+
+    @Synchronized
+    fun add(timing: NavigationTiming) {
+        if (records.size == BUFFER_SIZE) {
+            records.removeFirst()
+        }
+        records.addLast(timing)
+
+        Step.values().forEach {
+            val value = it.value(timing)
+            if (value >= 0) {
+                histograms[it]!!.record(value)
+            }
+        }
+    }
+
+    @Synchronized
+    fun recent(): List<NavigationTiming> = records.toList()
+
+    /**
+     * A human readable summary: p50/p90/p99 of every step, followed by the most recent navigations.
+     */
+    @Synchronized
+    fun report(): String {
+        val builder = StringBuilder()
+
+        Step.values().forEach {
+            val histogram = histograms[it]!!
+            builder.append(it.label).append(" (n=").append(histogram.count).append("): ")
+            if (histogram.count > 0) {
+                builder.append("p50=").append(histogram.percentile(50.0))
+                    .append(" p90=").append(histogram.percentile(90.0))
+                    .append(" p99=").append(histogram.percentile(99.0))
+            }
+            builder.append('\n')
+        }
+
+        records.descendingIterator().asSequence().take(10).forEach {
+            builder.append('\n').append(if (it.urlBarSubmitted) "submit" else "navigation")
+                .append(": override=").append(it.overrideUrlLoadingMs)
+                .append(" intercept=").append(it.firstInterceptMs)
+                .append(" started=").append(it.pageStartedMs)
+                .append(" progress=").append(it.firstProgressMs)
+                .append(" finished=").append(it.pageFinishedMs)
+                .append(" requests=").append(it.requestCount)
+                .append(" blocked=").append(it.blockedCount)
+                .append(" matcher=").append(it.matcherTimeMs)
+        }
+
+        return builder.toString()
+    }
+
+    @Synchronized
+    fun clear() {
+        records.clear()
+        histograms.values.forEach { it.clear() }
+    }
+
+    /**
+     * Records the navigations of a single WebView. Request interception happens on a background
+     * thread, all other callbacks are expected on the main thread.
+     */
+    class Recorder @JvmOverloads constructor(
+        private val clock: () -> Long = { SystemClock.elapsedRealtime() }
+    ) {
+        private class Builder(val start: Long, val urlBarSubmitted: Boolean) {
+            var overrideUrlLoading = -1L
+            var pageStarted = -1L
+            var firstProgress = -1L
+            val firstIntercept = AtomicLong(-1)
+            val requestCount = AtomicInteger(0)
+            val blockedCount = AtomicInteger(0)
+            val matcherNanos = AtomicLong(0)
+        }
+
+        @Volatile
+        private var current: Builder? = null
+
+        /**
+         * A new URL is loaded into the WebView.
+         */
+        fun begin() {
+            val now = clock()
+            val submit = NavigationTimings.consumeUrlBarSubmit(now)
+            current = Builder(if (submit >= 0) submit else now, submit >= 0)
+        }
+
+        fun onOverrideUrlLoading() {
+            val navigation = current
+            if (navigation == null || navigation.pageStarted >= 0) {
+                // A link was clicked: This is a new navigation.
+                begin()
+            }
+            current!!.let { if (it.overrideUrlLoading < 0) it.overrideUrlLoading = elapsed(it) }
+        }
+
+        fun onInterceptRequest(blocked: Boolean, matcherNanos: Long) {
+            val navigation = current ?: return
+
+            navigation.firstIntercept.compareAndSet(-1, elapsed(navigation))
+            navigation.requestCount.incrementAndGet()
+            navigation.matcherNanos.addAndGet(matcherNanos)
+            if (blocked) {
+                navigation.blockedCount.incrementAndGet()
+            }
+        }
+
+        fun onPageStarted() {
+            val navigation = current
+            if (navigation == null || navigation.pageStarted >= 0) {
+                // Back/forward navigations or reloads do not go through loadUrl() or
+                // shouldOverrideUrlLoading().
+                begin()
+            }
+            current!!.let { it.pageStarted = elapsed(it) }
+        }
+
+        fun onProgress() {
+            val navigation = current ?: return
+            if (navigation.firstProgress < 0) {
+                navigation.firstProgress = elapsed(navigation)
+            }
+        }
+
+        fun onPageFinished() {
+            val navigation = current ?: return
+            if (navigation.pageStarted < 0) {
+                return
+            }
+
+            current = null
+
+            NavigationTimings.add(NavigationTiming(
+                urlBarSubmitted = navigation.urlBarSubmitted,
+                overrideUrlLoadingMs = navigation.overrideUrlLoading,
+                firstInterceptMs = navigation.firstIntercept.get(),
+                pageStartedMs = navigation.pageStarted,
+                firstProgressMs = navigation.firstProgress,
+                pageFinishedMs = elapsed(navigation),
+                requestCount = navigation.requestCount.get(),
+                blockedCount = navigation.blockedCount.get(),
+                matcherTimeMs = navigation.matcherNanos.get() / NANOS_PER_MILLI))
+        }
+
+        private fun elapsed(navigation: Builder) = clock() - navigation.start
+    }
+}
@@ -0,0 +1,69 @@
+/* This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/. */
+
+package org.mozilla.focus.telemetry
+
+import android.os.Handler
+import android.os.Looper
+import org.mozilla.focus.utils.TaskScheduler
+import org.mozilla.telemetry.event.TelemetryEvent
+import java.util.concurrent.ConcurrentLinkedQueue
+import java.util.concurrent.atomic.AtomicBoolean
+
+/**
+ * Telemetry calls happen on UI paths (menu clicks, URL bar submits, tab switches). Instead of
+ * handing every event to the telemetry library right away, events are appended to a lock-free
+ * buffer and a single background writer hands them over in batches: a few seconds after the first
+ * pending event or immediately when the session stops.
+ *
+ * Events get their timestamp when they are created, so batching does not change the recorded data.
+ */
+object TelemetryEventQueue {
+    private const val FLUSH_DELAY_MS = 5000L
+
+    private val pending = ConcurrentLinkedQueue<() -> Unit>()
+    private val flushScheduled = AtomicBoolean(false)
+    private val writeLock = Any()
+
+    private val handler by lazy { Handler(Looper.getMainLooper()) }
+    private val flushRunnable = Runnable { flush() }
+    private val scheduleFlushRunnable = Runnable {
+        TaskScheduler.execute(TaskScheduler.Lane.DEFERRABLE, flushRunnable)
+    }
+
+    fun add(event: TelemetryEvent) {
+        post { event.queue() }
+    }
+
+    /**
+     * Run [action] on the telemetry writer, after all events that have been added before.
+     */
+    fun post(action: () -> Unit) {
+        pending.add(action)
+
+        if (flushScheduled.compareAndSet(false, true)) {
+            handler.postDelayed(scheduleFlushRunnable, FLUSH_DELAY_MS)
+        }
+    }
+
+    /**
+     * Write all pending events now (on the background writer).
+     */
+    fun flushNow() {
+        handler.removeCallbacks(scheduleFlushRunnable)
+        TaskScheduler.execute(TaskScheduler.Lane.DEFERRABLE, flushRunnable)
+    }
+
+    internal fun flush() {
+        synchronized(writeLock) {
+            // Reset first: Events added while we are writing will schedule another flush.
+            flushScheduled.set(false)
+
+            while (true) {
+                val action = pending.poll() ?: break
+                action()
+            }
+        }
+    }
+}
@@ -7,7 +7,9 @@ package org.mozilla.focus.telemetry
 import mozilla.components.browser.session.Session
 import mozilla.components.browser.session.SessionManager
 
-class TelemetrySessionObserver : SessionManager.Observer {
+class TelemetrySessionObserver(
+    private val sessionManager: SessionManager
+) : SessionManager.Observer {
     override fun onSessionAdded(session: Session) {
         when (session.source) {
             Session.Source.ACTION_VIEW -> TelemetryWrapper.browseIntentEvent()
@@ -19,5 +21,28 @@ class TelemetrySessionObserver : SessionManager.Observer {
                 // For other session types we create events at the place where we create the sessions.
             }
         }
+
+        updateSessionCounts()
+    }
+
+    override fun onSessionRemoved(session: Session) {
+        updateSessionCounts()
+    }
+
+    override fun onSessionSelected(session: Session) {
+        updateSessionCounts()
+    }
+
+    override fun onAllSessionsRemoved() {
+        updateSessionCounts()
+    }
+
+    /**
+     * Keep the session counts for telemetry events up to date. We only look at the session list
+     * when it changes and not every time an event is recorded.
+     */
+    private fun updateSessionCounts() {
+        val sessions = sessionManager.sessions
+        TelemetryWrapper.updateSessionCounts(sessions.indexOf(sessionManager.selectedSession), sessions.size)
     }
 }
@@ -9,6 +9,7 @@ import org.mozilla.focus.R
 import org.mozilla.focus.ext.components
 import org.mozilla.focus.search.CustomSearchEngineStore
 import org.mozilla.focus.utils.Browsers
+import org.mozilla.focus.utils.BrowsersCache
 import org.mozilla.focus.utils.Settings
 import org.mozilla.focus.utils.app
 import org.mozilla.telemetry.TelemetryHolder
@@ -51,7 +52,7 @@ internal class TelemetrySettingsProvider(
                 // The default browser is not actually a setting. We determine if we are the
                 // default and then inject this into telemetry.
                 val context = TelemetryHolder.get().configuration.context
-                val browsers = Browsers(context, Browsers.TRADITIONAL_BROWSER_URL)
+                val browsers = BrowsersCache.get(context, Browsers.TRADITIONAL_BROWSER_URL)
                 java.lang.Boolean.toString(browsers.isDefaultBrowser(context))
             }
             prefKeySearchEngine -> {
@@ -43,7 +43,6 @@ import java.net.URI
 import java.text.SimpleDateFormat
 import java.util.Date
 import java.util.Locale
-import kotlin.collections.HashSet
 
 @Suppress(
         // Yes, this a large class with a lot of functions. But it's very simple and still easy to read.
@@ -60,9 +59,6 @@ object TelemetryWrapper {
 
     private const val MAXIMUM_CUSTOM_TAB_EXTRAS = 10
 
-    private const val HISTOGRAM_SIZE = 200
-    private const val BUCKET_SIZE_MS = 100
-    private const val HISTOGRAM_MIN_INDEX = 0
 
     private val isEnabledByDefault: Boolean
         get() = !AppConstants.isKlarBuild
@@ -186,6 +182,9 @@ object TelemetryWrapper {
         val SEARCH_SUGGESTION = "search_suggestion"
         val TOTAL_URI_COUNT = "total_uri_count"
         val UNIQUE_DOMAINS_COUNT = "unique_domains_count"
+        val LOAD_TIME_P50 = "p50"
+        val LOAD_TIME_P90 = "p90"
+        val LOAD_TIME_P99 = "p99"
     }
 
     enum class BrowserContextMenuValue {
@@ -285,44 +284,51 @@ object TelemetryWrapper {
      */
     @CheckResult
     private fun withSessionCounts(event: TelemetryEvent): TelemetryEvent {
-        val context = TelemetryHolder.get().configuration.context
+        event.extra(Extra.SELECTED, selectedSessionPosition.toString())
+        event.extra(Extra.TOTAL, totalSessions.toString())
 
-        val sessionManager = context.components.sessionManager
-        val sessions = sessionManager.sessions
-        val selectedSession = sessionManager.selectedSession
+        return event
+    }
 
-        val positionOfSelectedSession = sessions.indexOf(selectedSession)
+    @Volatile private var selectedSessionPosition = -1
+    @Volatile private var totalSessions = 0
 
-        event.extra(Extra.SELECTED, positionOfSelectedSession.toString())
-        event.extra(Extra.TOTAL, sessions.size.toString())
+    /**
+     * Called by [TelemetrySessionObserver] whenever the sessions change, so that events do not need
+     * to look at the session manager.
+     */
+    fun updateSessionCounts(selectedPosition: Int, total: Int) {
+        selectedSessionPosition = selectedPosition
+        totalSessions = total
+    }
 
-        return event
+    /**
+     * Hand the event to the telemetry library in the next batch, see [TelemetryEventQueue].
+     */
+    private fun TelemetryEvent.queueInBackground() {
+        TelemetryEventQueue.add(this)
     }
 
     @JvmStatic
     fun startSession() {
-        TelemetryHolder.get().recordSessionStart()
+        TelemetryEventQueue.post { TelemetryHolder.get().recordSessionStart() }
+
+        TelemetryEvent.create(Category.ACTION, Method.FOREGROUND, Object.APP).queueInBackground()
 
-        TelemetryEvent.create(Category.ACTION, Method.FOREGROUND, Object.APP).queue()
+        // Measure the session duration from now and not from the next batch.
+        TelemetryEventQueue.flushNow()
     }
 
-    @VisibleForTesting var histogram = IntArray(HISTOGRAM_SIZE)
-    @VisibleForTesting var domainMap = HashSet<String>()
+    @VisibleForTesting val histogram = LoadTimeHistogram()
+    // We only need the number of unique domains: Count them with a sketch instead of keeping the hosts.
+    @VisibleForTesting val uniqueDomains = HyperLogLog()
     @VisibleForTesting var numUri = 0
 
     @JvmStatic
     fun addLoadToHistogram(url: String, newLoadTime: Long) {
-        domainMap.add(UrlUtils.stripCommonSubdomains(URI(url).host))
+        uniqueDomains.add(UrlUtils.stripCommonSubdomains(URI(url).host))
         numUri++
-        var histogramLoadIndex = (newLoadTime / BUCKET_SIZE_MS).toInt()
-
-        if (histogramLoadIndex > (HISTOGRAM_SIZE - 2)) {
-            histogramLoadIndex = HISTOGRAM_SIZE - 1
-        } else if (histogramLoadIndex < HISTOGRAM_MIN_INDEX) {
-            histogramLoadIndex = HISTOGRAM_MIN_INDEX
-        }
-
-        histogram[histogramLoadIndex]++
+        histogram.record(newLoadTime)
     }
 
     @JvmStatic
@@ -340,38 +346,49 @@ object TelemetryWrapper {
 
     @JvmStatic
     fun stopSession() {
-        TelemetryHolder.get().recordSessionEnd()
+        TelemetryEventQueue.post { TelemetryHolder.get().recordSessionEnd() }
 
         val histogramEvent = TelemetryEvent.create(Category.HISTOGRAM, Method.FOREGROUND, Object.BROWSER)
-        for (bucketIndex in histogram.indices) {
-            histogramEvent.extra((bucketIndex * BUCKET_SIZE_MS).toString(), histogram[bucketIndex].toString())
+        histogram.forEachBucket { lowerBoundMs, count ->
+            histogramEvent.extra(lowerBoundMs.toString(), count.toString())
         }
-        histogramEvent.queue()
+        if (histogram.count > 0) {
+            histogramEvent.extra(Extra.LOAD_TIME_P50, histogram.percentile(50.0).toString())
+            histogramEvent.extra(Extra.LOAD_TIME_P90, histogram.percentile(90.0).toString())
+            histogramEvent.extra(Extra.LOAD_TIME_P99, histogram.percentile(99.0).toString())
+        }
+        histogramEvent.queueInBackground()
 
-        // Clear histogram array after queueing it
-        histogram = IntArray(HISTOGRAM_SIZE)
+        // Clear histogram after queueing it
+        histogram.clear()
 
         TelemetryEvent.create(Category.ACTION, Method.OPEN, Object.BROWSER).extra(
                 Extra.UNIQUE_DOMAINS_COUNT,
-                domainMap.size.toString()
-        ).queue()
-        domainMap.clear()
+                uniqueDomains.estimate().toString()
+        ).queueInBackground()
+        uniqueDomains.clear()
 
         TelemetryEvent.create(Category.ACTION, Method.OPEN, Object.BROWSER).extra(
                 Extra.TOTAL_URI_COUNT,
                 numUri.toString()
-        ).queue()
+        ).queueInBackground()
         numUri = 0
 
-        TelemetryEvent.create(Category.ACTION, Method.BACKGROUND, Object.APP).queue()
+        TelemetryEvent.create(Category.ACTION, Method.BACKGROUND, Object.APP).queueInBackground()
+
+        TelemetryEventQueue.flushNow()
     }
 
     @JvmStatic
     fun stopMainActivity() {
-        TelemetryHolder.get()
-                .queuePing(TelemetryCorePingBuilder.TYPE)
-                .queuePing(TelemetryEventPingBuilder.TYPE)
-                .scheduleUpload()
+        // The pings need to contain all events that are still waiting to be written.
+        TelemetryEventQueue.post {
+            TelemetryHolder.get()
+                    .queuePing(TelemetryCorePingBuilder.TYPE)
+                    .queuePing(TelemetryEventPingBuilder.TYPE)
+                    .scheduleUpload()
+        }
+        TelemetryEventQueue.flushNow()
     }
 
     @JvmStatic
@@ -392,20 +409,20 @@ object TelemetryWrapper {
             event.extra(Extra.SOURCE, autocompleteResult.source)
         }
 
-        event.queue()
+        event.queueInBackground()
     }
 
     @JvmStatic
     fun browseIntentEvent() {
-        TelemetryEvent.create(Category.ACTION, Method.INTENT_URL, Object.APP).queue()
+        TelemetryEvent.create(Category.ACTION, Method.INTENT_URL, Object.APP).queueInBackground()
     }
 
     @JvmStatic
     fun shareIntentEvent(isSearch: Boolean) {
         if (isSearch) {
-            TelemetryEvent.create(Category.ACTION, Method.SHARE_INTENT, Object.APP, Value.SEARCH).queue()
+            TelemetryEvent.create(Category.ACTION, Method.SHARE_INTENT, Object.APP, Value.SEARCH).queueInBackground()
         } else {
-            TelemetryEvent.create(Category.ACTION, Method.SHARE_INTENT, Object.APP, Value.URL).queue()
+            TelemetryEvent.create(Category.ACTION, Method.SHARE_INTENT, Object.APP, Value.URL).queueInBackground()
         }
     }
 
@@ -427,61 +444,63 @@ object TelemetryWrapper {
             event.extra(option, "true")
         }
 
-        event.queue()
+        event.queueInBackground()
     }
 
     @JvmStatic
     fun downloadDialogDownloadEvent(sentToDownload: Boolean) {
         if (sentToDownload) {
-            TelemetryEvent.create(Category.ACTION, Method.CLICK, Object.DOWNLOAD_DIALOG, Value.DOWNLOAD).queue()
+            TelemetryEvent.create(Category.ACTION, Method.CLICK, Object.DOWNLOAD_DIALOG, Value.DOWNLOAD).queueInBackground()
         } else {
-            TelemetryEvent.create(Category.ACTION, Method.CLICK, Object.DOWNLOAD_DIALOG, Value.CANCEL).queue()
+            TelemetryEvent.create(Category.ACTION, Method.CLICK, Object.DOWNLOAD_DIALOG, Value.CANCEL).queueInBackground()
         }
     }
 
     @JvmStatic
     fun closeCustomTabEvent() {
         withSessionCounts(TelemetryEvent.create(Category.ACTION, Method.CLICK, Object.CUSTOM_TAB_CLOSE_BUTTON))
-                .queue()
+                .queueInBackground()
     }
 
     @JvmStatic
     fun customTabActionButtonEvent() {
-        TelemetryEvent.create(Category.ACTION, Method.CLICK, Object.CUSTOM_TAB_ACTION_BUTTON).queue()
+        TelemetryEvent.create(Category.ACTION, Method.CLICK, Object.CUSTOM_TAB_ACTION_BUTTON).queueInBackground()
     }
 
     @JvmStatic
     fun customTabMenuEvent() {
-        TelemetryEvent.create(Category.ACTION, Method.OPEN, Object.MENU, Value.CUSTOM_TAB).queue()
+        TelemetryEvent.create(Category.ACTION, Method.OPEN, Object.MENU, Value.CUSTOM_TAB).queueInBackground()
     }
 
     @JvmStatic
     fun textSelectionIntentEvent() {
-        TelemetryEvent.create(Category.ACTION, Method.TEXT_SELECTION_INTENT, Object.APP).queue()
+        TelemetryEvent.create(Category.ACTION, Method.TEXT_SELECTION_INTENT, Object.APP).queueInBackground()
     }
 
     private fun searchEnterEvent() {
-        val telemetry = TelemetryHolder.get()
-
-        TelemetryEvent.create(Category.ACTION, Method.TYPE_QUERY, Object.SEARCH_BAR).queue()
-
-        val searchEngine = getDefaultSearchEngineIdentifierForTelemetry(telemetry.configuration.context)
+        TelemetryEvent.create(Category.ACTION, Method.TYPE_QUERY, Object.SEARCH_BAR).queueInBackground()
 
-        telemetry.recordSearch(SearchesMeasurement.LOCATION_ACTIONBAR, searchEngine)
+        recordSearchInBackground(SearchesMeasurement.LOCATION_ACTIONBAR)
     }
 
     @JvmStatic
     fun searchSelectEvent(isSearchSuggestion: Boolean) {
-        val telemetry = TelemetryHolder.get()
-
         TelemetryEvent
                 .create(Category.ACTION, Method.TYPE_SELECT_QUERY, Object.SEARCH_BAR)
                 .extra(Extra.SEARCH_SUGGESTION, "$isSearchSuggestion")
-                .queue()
+                .queueInBackground()
 
-        val searchEngineIdentifier = getDefaultSearchEngineIdentifierForTelemetry(telemetry.configuration.context)
+        recordSearchInBackground(SearchesMeasurement.LOCATION_SUGGESTION)
+    }
 
-        telemetry.recordSearch(SearchesMeasurement.LOCATION_SUGGESTION, searchEngineIdentifier)
+    private fun recordSearchInBackground(location: String) {
+        // Looking up the search engine identifier reads the custom search engines from disk.
+        TelemetryEventQueue.post {
+            val telemetry = TelemetryHolder.get()
+            val searchEngineIdentifier = getDefaultSearchEngineIdentifierForTelemetry(telemetry.configuration.context)
+
+            telemetry.recordSearch(location, searchEngineIdentifier)
+        }
     }
 
     private fun getDefaultSearchEngineIdentifierForTelemetry(context: Context): String {
@@ -501,25 +520,25 @@ object TelemetryWrapper {
     @JvmStatic
     fun eraseEvent() {
         withSessionCounts(TelemetryEvent.create(Category.ACTION, Method.CLICK, Object.ERASE_BUTTON))
-                .queue()
+                .queueInBackground()
     }
 
     @JvmStatic
     fun eraseBackToHomeEvent() {
         withSessionCounts(TelemetryEvent.create(Category.ACTION, Method.CLICK, Object.BACK_BUTTON, Value.ERASE_TO_HOME))
-                .queue()
+                .queueInBackground()
     }
 
     @JvmStatic
     fun eraseBackToAppEvent() {
         withSessionCounts(TelemetryEvent.create(Category.ACTION, Method.CLICK, Object.BACK_BUTTON, Value.ERASE_TO_APP))
-                .queue()
+                .queueInBackground()
     }
 
     @JvmStatic
     fun eraseNotificationEvent() {
         withSessionCounts(TelemetryEvent.create(Category.ACTION, Method.CLICK, Object.NOTIFICATION, Value.ERASE))
-                .queue()
+                .queueInBackground()
     }
 
     @JvmStatic
@@ -529,17 +548,17 @@ object TelemetryWrapper {
                 Method.CLICK,
                 Object.NOTIFICATION_ACTION,
                 Value.ERASE_AND_OPEN)
-        ).queue()
+        ).queueInBackground()
     }
 
     @JvmStatic
     fun openNotificationActionEvent() {
-        TelemetryEvent.create(Category.ACTION, Method.CLICK, Object.NOTIFICATION_ACTION, Value.OPEN).queue()
+        TelemetryEvent.create(Category.ACTION, Method.CLICK, Object.NOTIFICATION_ACTION, Value.OPEN).queueInBackground()
     }
 
     @JvmStatic
     fun openHomescreenShortcutEvent() {
-        TelemetryEvent.create(Category.ACTION, Method.CLICK, Object.HOMESCREEN_SHORTCUT, Value.OPEN).queue()
+        TelemetryEvent.create(Category.ACTION, Method.CLICK, Object.HOMESCREEN_SHORTCUT, Value.OPEN).queueInBackground()
     }
 
     @JvmStatic
@@ -549,82 +568,82 @@ object TelemetryWrapper {
                 Method.CLICK,
                 Object.ADD_TO_HOMESCREEN_DIALOG,
                 Value.ADD_TO_HOMESCREEN
-        ).queue()
+        ).queueInBackground()
     }
 
     @JvmStatic
     fun cancelAddToHomescreenShortcutEvent() {
-        TelemetryEvent.create(Category.ACTION, Method.CLICK, Object.ADD_TO_HOMESCREEN_DIALOG, Value.CANCEL).queue()
+        TelemetryEvent.create(Category.ACTION, Method.CLICK, Object.ADD_TO_HOMESCREEN_DIALOG, Value.CANCEL).queueInBackground()
     }
 
     @JvmStatic
     fun eraseShortcutEvent() {
         withSessionCounts(TelemetryEvent.create(Category.ACTION, Method.CLICK, Object.SHORTCUT, Value.ERASE))
-                .queue()
+                .queueInBackground()
     }
 
     @JvmStatic
     fun eraseTaskRemoved() {
         withSessionCounts(TelemetryEvent.create(Category.ACTION, Method.CLICK, Object.RECENT_APPS, Value.ERASE))
-                .queue()
+                .queueInBackground()
     }
 
     @JvmStatic
     fun settingsEvent(key: String, value: String) {
         TelemetryEvent.create(Category.ACTION, Method.CHANGE, Object.SETTING, key)
                 .extra(Extra.TO, value)
-                .queue()
+                .queueInBackground()
     }
 
     @JvmStatic
     fun shareEvent() {
-        TelemetryEvent.create(Category.ACTION, Method.SHARE, Object.MENU).queue()
+        TelemetryEvent.create(Category.ACTION, Method.SHARE, Object.MENU).queueInBackground()
     }
 
     @JvmStatic
     fun shareLinkEvent() {
-        TelemetryEvent.create(Category.ACTION, Method.SHARE, Object.BROWSER_CONTEXTMENU, Value.LINK).queue()
+        TelemetryEvent.create(Category.ACTION, Method.SHARE, Object.BROWSER_CONTEXTMENU, Value.LINK).queueInBackground()
     }
 
     @JvmStatic
     fun shareImageEvent() {
-        TelemetryEvent.create(Category.ACTION, Method.SHARE, Object.BROWSER_CONTEXTMENU, Value.IMAGE).queue()
+        TelemetryEvent.create(Category.ACTION, Method.SHARE, Object.BROWSER_CONTEXTMENU, Value.IMAGE).queueInBackground()
     }
 
     @JvmStatic
     fun saveImageEvent() {
-        TelemetryEvent.create(Category.ACTION, Method.SAVE, Object.BROWSER_CONTEXTMENU, Value.IMAGE).queue()
+        TelemetryEvent.create(Category.ACTION, Method.SAVE, Object.BROWSER_CONTEXTMENU, Value.IMAGE).queueInBackground()
     }
 
     @JvmStatic
     fun copyLinkEvent() {
-        TelemetryEvent.create(Category.ACTION, Method.COPY, Object.BROWSER_CONTEXTMENU, Value.LINK).queue()
+        TelemetryEvent.create(Category.ACTION, Method.COPY, Object.BROWSER_CONTEXTMENU, Value.LINK).queueInBackground()
     }
 
     @JvmStatic
     fun copyImageEvent() {
-        TelemetryEvent.create(Category.ACTION, Method.COPY, Object.BROWSER_CONTEXTMENU, Value.IMAGE).queue()
+        TelemetryEvent.create(Category.ACTION, Method.COPY, Object.BROWSER_CONTEXTMENU, Value.IMAGE).queueInBackground()
     }
 
     @JvmStatic
     fun openLinkInNewTabEvent() {
         withSessionCounts(TelemetryEvent.create(Category.ACTION, Method.OPEN, Object.BROWSER_CONTEXTMENU, Value.TAB))
-                .queue()
+                .queueInBackground()
     }
 
     @JvmStatic
     fun openWebContextMenuEvent() {
-        TelemetryEvent.create(Category.ACTION, Method.LONG_PRESS, Object.BROWSER).queue()
+        TelemetryEvent.create(Category.ACTION, Method.LONG_PRESS, Object.BROWSER).queueInBackground()
     }
 
     @JvmStatic
     fun cancelWebContextMenuEvent(value: BrowserContextMenuValue) {
-        TelemetryEvent.create(Category.ACTION, Method.CANCEL, Object.BROWSER_CONTEXTMENU, value.toString()).queue()
+        TelemetryEvent.create(Category.ACTION, Method.CANCEL, Object.BROWSER_CONTEXTMENU, value.toString()).queueInBackground()
     }
 
     @JvmStatic
     fun openDefaultAppEvent() {
-        TelemetryEvent.create(Category.ACTION, Method.OPEN, Object.MENU, Value.DEFAULT).queue()
+        TelemetryEvent.create(Category.ACTION, Method.OPEN, Object.MENU, Value.DEFAULT).queueInBackground()
     }
 
     /**
@@ -632,32 +651,32 @@ object TelemetryWrapper {
      */
     @JvmStatic
     fun openFullBrowser() {
-        TelemetryEvent.create(Category.ACTION, Method.OPEN, Object.MENU, Value.FULL_BROWSER).queue()
+        TelemetryEvent.create(Category.ACTION, Method.OPEN, Object.MENU, Value.FULL_BROWSER).queueInBackground()
     }
 
     @JvmStatic
     fun openFromIconEvent() {
-        TelemetryEvent.create(Category.ACTION, Method.CLICK, Object.APP_ICON, Value.OPEN).queue()
+        TelemetryEvent.create(Category.ACTION, Method.CLICK, Object.APP_ICON, Value.OPEN).queueInBackground()
     }
 
     @JvmStatic
     fun resumeFromIconEvent() {
-        TelemetryEvent.create(Category.ACTION, Method.CLICK, Object.APP_ICON, Value.RESUME).queue()
+        TelemetryEvent.create(Category.ACTION, Method.CLICK, Object.APP_ICON, Value.RESUME).queueInBackground()
     }
 
     @JvmStatic
     fun openFirefoxEvent() {
-        TelemetryEvent.create(Category.ACTION, Method.OPEN, Object.MENU, Value.FIREFOX).queue()
+        TelemetryEvent.create(Category.ACTION, Method.OPEN, Object.MENU, Value.FIREFOX).queueInBackground()
     }
 
     @JvmStatic
     fun installFirefoxEvent() {
-        TelemetryEvent.create(Category.ACTION, Method.INSTALL, Object.APP, Value.FIREFOX).queue()
+        TelemetryEvent.create(Category.ACTION, Method.INSTALL, Object.APP, Value.FIREFOX).queueInBackground()
     }
 
     @JvmStatic
     fun openSelectionEvent() {
-        TelemetryEvent.create(Category.ACTION, Method.OPEN, Object.MENU, Value.SELECTION).queue()
+        TelemetryEvent.create(Category.ACTION, Method.OPEN, Object.MENU, Value.SELECTION).queueInBackground()
     }
 
     @JvmStatic
@@ -667,7 +686,7 @@ object TelemetryWrapper {
                 Method.CLICK,
                 Object.BLOCKING_SWITCH,
                 isBlockingEnabled.toString()
-        ).queue()
+        ).queueInBackground()
     }
 
     @JvmStatic
@@ -677,66 +696,66 @@ object TelemetryWrapper {
             Method.CLICK,
             Object.DESKTOP_REQUEST_CHECK,
             shouldRequestDesktop.toString()
-        ).queue()
+        ).queueInBackground()
     }
 
     @JvmStatic
     fun showFirstRunPageEvent(page: Int) {
-        TelemetryEvent.create(Category.ACTION, Method.SHOW, Object.FIRSTRUN, page.toString()).queue()
+        TelemetryEvent.create(Category.ACTION, Method.SHOW, Object.FIRSTRUN, page.toString()).queueInBackground()
     }
 
     @JvmStatic
     fun skipFirstRunEvent() {
-        TelemetryEvent.create(Category.ACTION, Method.CLICK, Object.FIRSTRUN, Value.SKIP).queue()
+        TelemetryEvent.create(Category.ACTION, Method.CLICK, Object.FIRSTRUN, Value.SKIP).queueInBackground()
     }
 
     @JvmStatic
     fun finishFirstRunEvent() {
-        TelemetryEvent.create(Category.ACTION, Method.CLICK, Object.FIRSTRUN, Value.FINISH).queue()
+        TelemetryEvent.create(Category.ACTION, Method.CLICK, Object.FIRSTRUN, Value.FINISH).queueInBackground()
     }
 
     @JvmStatic
     fun openTabsTrayEvent() {
-        TelemetryEvent.create(Category.ACTION, Method.SHOW, Object.TABS_TRAY).queue()
+        TelemetryEvent.create(Category.ACTION, Method.SHOW, Object.TABS_TRAY).queueInBackground()
     }
 
     @JvmStatic
     fun openWhatsNewEvent(highlighted: Boolean) {
         TelemetryEvent.create(Category.ACTION, Method.CLICK, Object.MENU, Value.WHATS_NEW)
                 .extra(Extra.HIGHLIGHTED, highlighted.toString())
-                .queue()
+                .queueInBackground()
     }
 
     @JvmStatic
     fun findInPageMenuEvent() {
-        TelemetryEvent.create(Category.ACTION, Method.OPEN, Object.MENU, Value.FIND_IN_PAGE).queue()
+        TelemetryEvent.create(Category.ACTION, Method.OPEN, Object.MENU, Value.FIND_IN_PAGE).queueInBackground()
     }
 
     @JvmStatic
     fun closeTabsTrayEvent() {
-        TelemetryEvent.create(Category.ACTION, Method.HIDE, Object.TABS_TRAY).queue()
+        TelemetryEvent.create(Category.ACTION, Method.HIDE, Object.TABS_TRAY).queueInBackground()
     }
 
     @JvmStatic
     fun switchTabInTabsTrayEvent() {
         withSessionCounts(TelemetryEvent.create(Category.ACTION, Method.CLICK, Object.TABS_TRAY, Value.TAB))
-                .queue()
+                .queueInBackground()
     }
 
     @JvmStatic
     fun eraseInTabsTrayEvent() {
         withSessionCounts(TelemetryEvent.create(Category.ACTION, Method.CLICK, Object.TABS_TRAY, Value.ERASE))
-                .queue()
+                .queueInBackground()
     }
 
     @JvmStatic
     fun swipeReloadEvent() {
-        TelemetryEvent.create(Category.ACTION, Method.SWIPE, Object.BROWSER, Value.RELOAD).queue()
+        TelemetryEvent.create(Category.ACTION, Method.SWIPE, Object.BROWSER, Value.RELOAD).queueInBackground()
     }
 
     @JvmStatic
     fun menuReloadEvent() {
-        TelemetryEvent.create(Category.ACTION, Method.CLICK, Object.MENU, Value.RELOAD).queue()
+        TelemetryEvent.create(Category.ACTION, Method.CLICK, Object.MENU, Value.RELOAD).queueInBackground()
     }
 
     @JvmStatic
@@ -753,7 +772,7 @@ object TelemetryWrapper {
         }
         TelemetryEvent.create(Category.ERROR, if (fromPage) Method.PAGE else Method.RESOURCE, Object.BROWSER)
                 .extra(Extra.ERROR_CODE, primaryErrorMessage)
-                .queue()
+                .queueInBackground()
     }
 
     enum class AutoCompleteEventSource {
@@ -768,80 +787,80 @@ object TelemetryWrapper {
 
         TelemetryEvent.create(Category.ACTION, Method.SAVE, Object.AUTOCOMPLETE_DOMAIN)
                 .extra(Extra.SOURCE, source)
-                .queue()
+                .queueInBackground()
     }
 
     fun removeAutocompleteDomainsEvent(count: Int) {
         TelemetryEvent.create(Category.ACTION, Method.REMOVE, Object.AUTOCOMPLETE_DOMAIN)
                 .extra(Extra.TOTAL, count.toString())
-                .queue()
+                .queueInBackground()
     }
 
     fun reorderAutocompleteDomainEvent(from: Int, to: Int) {
         TelemetryEvent.create(Category.ACTION, Method.REORDER, Object.AUTOCOMPLETE_DOMAIN)
                 .extra(Extra.FROM, from.toString())
                 .extra(Extra.TO, to.toString())
-                .queue()
+                .queueInBackground()
     }
 
     fun autofillShownEvent() {
-        TelemetryEvent.create(Category.ACTION, Method.SHOW, Object.AUTOFILL).queue()
+        TelemetryEvent.create(Category.ACTION, Method.SHOW, Object.AUTOFILL).queueInBackground()
     }
 
     @JvmStatic
     fun autofillPerformedEvent() {
-        TelemetryEvent.create(Category.ACTION, Method.CLICK, Object.AUTOFILL).queue()
+        TelemetryEvent.create(Category.ACTION, Method.CLICK, Object.AUTOFILL).queueInBackground()
     }
 
     @JvmStatic
     fun setDefaultSearchEngineEvent(source: String) {
         TelemetryEvent.create(Category.ACTION, Method.SAVE, Object.SEARCH_ENGINE_SETTING)
                 .extra(Extra.SOURCE, source)
-                .queue()
+                .queueInBackground()
     }
 
     @JvmStatic
     fun openSearchSettingsEvent() {
-        TelemetryEvent.create(Category.ACTION, Method.OPEN, Object.SEARCH_ENGINE_SETTING).queue()
+        TelemetryEvent.create(Category.ACTION, Method.OPEN, Object.SEARCH_ENGINE_SETTING).queueInBackground()
     }
 
     @JvmStatic
     fun menuRemoveEnginesEvent() {
-        TelemetryEvent.create(Category.ACTION, Method.REMOVE, Object.SEARCH_ENGINE_SETTING).queue()
+        TelemetryEvent.create(Category.ACTION, Method.REMOVE, Object.SEARCH_ENGINE_SETTING).queueInBackground()
     }
 
     @JvmStatic
     fun menuRestoreEnginesEvent() {
-        TelemetryEvent.create(Category.ACTION, Method.RESTORE, Object.SEARCH_ENGINE_SETTING).queue()
+        TelemetryEvent.create(Category.ACTION, Method.RESTORE, Object.SEARCH_ENGINE_SETTING).queueInBackground()
     }
 
     @JvmStatic
     fun menuAddSearchEngineEvent() {
-        TelemetryEvent.create(Category.ACTION, Method.SHOW, Object.CUSTOM_SEARCH_ENGINE).queue()
+        TelemetryEvent.create(Category.ACTION, Method.SHOW, Object.CUSTOM_SEARCH_ENGINE).queueInBackground()
     }
 
     @JvmStatic
     fun saveCustomSearchEngineEvent(success: Boolean) {
         TelemetryEvent.create(Category.ACTION, Method.SAVE, Object.CUSTOM_SEARCH_ENGINE)
                 .extra(Extra.SUCCESS, success.toString())
-                .queue()
+                .queueInBackground()
     }
 
     @JvmStatic
     fun removeSearchEnginesEvent(selected: Int) {
         TelemetryEvent.create(Category.ACTION, Method.REMOVE, Object.REMOVE_SEARCH_ENGINES)
                 .extra(Extra.SELECTED, selected.toString())
-                .queue()
+                .queueInBackground()
     }
 
     @JvmStatic
     fun addSearchEngineLearnMoreEvent() {
-        TelemetryEvent.create(Category.ACTION, Method.CLICK, Object.ADD_SEARCH_ENGINE_LEARN_MORE).queue()
+        TelemetryEvent.create(Category.ACTION, Method.CLICK, Object.ADD_SEARCH_ENGINE_LEARN_MORE).queueInBackground()
     }
 
     @JvmStatic
     fun changeToGeckoEngineEvent() {
-        TelemetryEvent.create(Category.ACTION, Method.CHANGE, Object.GECKO_ENGINE).queue()
+        TelemetryEvent.create(Category.ACTION, Method.CHANGE, Object.GECKO_ENGINE).queueInBackground()
     }
 
     @JvmStatic
@@ -851,14 +870,14 @@ object TelemetryWrapper {
 
     @JvmStatic
     fun reportSiteIssueEvent() {
-        TelemetryEvent.create(Category.ACTION, Method.CLICK, Object.MENU, Value.REPORT_ISSUE).queue()
+        TelemetryEvent.create(Category.ACTION, Method.CLICK, Object.MENU, Value.REPORT_ISSUE).queueInBackground()
     }
 
     @JvmStatic
     fun respondToSearchSuggestionPrompt(enable: Boolean) {
         TelemetryEvent
                 .create(Category.ACTION, Method.CLICK, Object.SEARCH_SUGGESTION_PROMPT, "$enable")
-                .queue()
+                .queueInBackground()
     }
 
     @JvmStatic
@@ -886,7 +905,7 @@ object TelemetryWrapper {
             }
         }
 
-        TelemetryEvent.create(Category.ACTION, Method.SHOW, Object.TIP, telemetryValue).queue()
+        TelemetryEvent.create(Category.ACTION, Method.SHOW, Object.TIP, telemetryValue).queueInBackground()
     }
 
     @JvmStatic
@@ -904,7 +923,7 @@ object TelemetryWrapper {
             }
         }
 
-        TelemetryEvent.create(Category.ACTION, Method.CLICK, Object.TIP, telemetryValue).queue()
+        TelemetryEvent.create(Category.ACTION, Method.CLICK, Object.TIP, telemetryValue).queueInBackground()
     }
 
     private fun isDeviceWithTelemetryDisabled(): Boolean {
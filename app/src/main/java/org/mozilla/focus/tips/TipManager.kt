@@ -26,6 +26,7 @@ import org.mozilla.focus.utils.SupportUtils
 import org.mozilla.focus.utils.homeScreenTipsExperimentDescriptor
 import org.mozilla.focus.utils.isInExperiment
 import org.mozilla.focus.utils.Browsers
+import org.mozilla.focus.utils.BrowsersCache
 import java.util.Random
 
 class Tip(val id: Int, val text: String, val shouldDisplay: () -> Boolean, val deepLink: (() -> Unit)? = null) {
@@ -67,10 +68,10 @@ class Tip(val id: Int, val text: String, val shouldDisplay: () -> Boolean, val d
             val appName = context.resources.getString(app_name)
             val id = tip_set_default_browser
             val name = context.resources.getString(id, appName)
-            val browsers = Browsers(context, Browsers.TRADITIONAL_BROWSER_URL)
+            val browsers = BrowsersCache.get(context, Browsers.TRADITIONAL_BROWSER_URL)
 
             val shouldDisplayDefaultBrowser = {
-                !Browsers(context, Browsers.TRADITIONAL_BROWSER_URL).isDefaultBrowser(context)
+                !BrowsersCache.get(context, Browsers.TRADITIONAL_BROWSER_URL).isDefaultBrowser(context)
             }
 
             val deepLinkDefaultBrowser = {
@@ -0,0 +1,139 @@
+/* This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/. */
+
+package org.mozilla.focus.utils
+
+import android.content.BroadcastReceiver
+import android.content.Context
+import android.content.Intent
+import android.content.IntentFilter
+import android.content.pm.ActivityInfo
+import android.content.pm.PackageManager
+import android.net.Uri
+import android.util.LruCache
+
+/**
+ * Memoizes the [Browsers] for a URL and the apps (other than browsers) that can open a link.
+ *
+ * Resolving them takes several round-trips to the package manager. Menus and tips ask for the same
+ * URLs over and over, so we keep the results until a package is installed, removed or changed. The
+ * default browser can change without a broadcast: [refresh] is called whenever the app comes back
+ * to the foreground.
+ *
+ * The keys are URLs the user has visited: Everything is dropped when the browsing session is erased.
+ *
+ * [get] and [getLinkHandlers] resolve on the calling thread if the URL isn't cached yet; [prefetch]
+ * resolves in the background so that a menu opened later doesn't have to wait.
+ */
+object BrowsersCache {
+    private const val MAX_ENTRIES = 16
+
+    private val browsers = LruCache<String, Browsers>(MAX_ENTRIES)
+    // LruCache doesn't take null values: An empty array means no app can open the link.
+    private val linkHandlers = LruCache<String, Array<ActivityInfo>>(MAX_ENTRIES)
+
+    // Incremented on every invalidation. Results resolved before that are not cached.
+    @Volatile
+    private var generation = 0
+
+    private var isReceiverRegistered = false
+
+    @JvmStatic
+    fun get(context: Context, url: String): Browsers {
+        browsers.get(url)?.let { return it }
+
+        val generation = generation
+        val result = Browsers(context, url)
+        synchronized(this) {
+            if (generation == this.generation) {
+                browsers.put(url, result)
+            }
+        }
+        return result
+    }
+
+    /**
+     * Returns the apps that can open this link, excluding browsers and this app, or null if there
+     * are none.
+     */
+    @JvmStatic
+    fun getLinkHandlers(context: Context, url: String): Array<ActivityInfo>? {
+        val cached = linkHandlers.get(url) ?: resolveLinkHandlers(context, url)
+        return if (cached.isEmpty()) null else cached
+    }
+
+    private fun resolveLinkHandlers(context: Context, url: String): Array<ActivityInfo> {
+        val generation = generation
+
+        // Browsers handle every link. They are found for our sample URL.
+        val browserPackages = get(context, Browsers.TRADITIONAL_BROWSER_URL).installedBrowsers
+            .mapTo(HashSet()) { it.packageName }
+
+        val intent = Intent(Intent.ACTION_VIEW, Uri.parse(url))
+        val result = context.packageManager
+            .queryIntentActivities(intent, PackageManager.MATCH_DEFAULT_ONLY)
+            .map { it.activityInfo }
+            .filter { it.packageName !in browserPackages && it.packageName != context.packageName }
+            .toTypedArray()
+
+        synchronized(this) {
+            if (generation == this.generation) {
+                linkHandlers.put(url, result)
+            }
+        }
+        return result
+    }
+
+    /**
+     * Resolve the browsers for this URL in the background.
+     */
+    @JvmStatic
+    fun prefetch(context: Context, url: String) {
+        val applicationContext = context.applicationContext
+        TaskScheduler.execute(TaskScheduler.Lane.USER_BLOCKING, Runnable { get(applicationContext, url) })
+    }
+
+    /**
+     * Drop everything and resolve the browsers for our sample URL again in the background.
+     */
+    @JvmStatic
+    fun refresh(context: Context) {
+        invalidate()
+        prefetch(context, Browsers.TRADITIONAL_BROWSER_URL)
+    }
+
+    @Synchronized
+    fun invalidate() {
+        generation++
+        browsers.evictAll()
+        linkHandlers.evictAll()
+    }
+
+    /**
+     * Start listening for installed, removed and changed packages.
+     */
+    @Synchronized
+    fun registerPackageReceiver(context: Context) {
+        if (isReceiverRegistered) {
+            return
+        }
+
+        val filter = IntentFilter().apply {
+            addAction(Intent.ACTION_PACKAGE_ADDED)
+            addAction(Intent.ACTION_PACKAGE_REMOVED)
+            addAction(Intent.ACTION_PACKAGE_CHANGED)
+            addAction(Intent.ACTION_PACKAGE_REPLACED)
+            addDataScheme("package")
+        }
+
+        val applicationContext = context.applicationContext
+        applicationContext.registerReceiver(object : BroadcastReceiver() {
+            override fun onReceive(context: Context, intent: Intent) {
+                refresh(applicationContext)
+            }
+        }, filter)
+
+        isReceiverRegistered = true
+    }
+}
@@ -18,12 +18,22 @@ import java.util.concurrent.TimeUnit
  * @return a throttled channel
  */
 fun <T> ReceiveChannel<T>.debounce(time: Long, unit: TimeUnit = TimeUnit.MILLISECONDS): ReceiveChannel<T> =
+    debounce { unit.toMillis(time) }
+
+/**
+ * Creates a debounced ReceiveChannel whose window can change over time.
+ *
+ * @param timeMs returns the amount of time in milliseconds to debounce by. Called whenever a new
+ * value restarts the window.
+ * @return a throttled channel
+ */
+fun <T> ReceiveChannel<T>.debounce(timeMs: () -> Long): ReceiveChannel<T> =
     Channel<T>(capacity = Channel.CONFLATED).also { channel ->
         launch {
             var value = receive()
 
             whileSelect {
-                onTimeout(time, unit) {
+                onTimeout(timeMs(), TimeUnit.MILLISECONDS) {
                     channel.offer(value)
                     value = receive()
                     true
@@ -36,3 +46,56 @@ fun <T> ReceiveChannel<T>.debounce(time: Long, unit: TimeUnit = TimeUnit.MILLISE
             }
         }
     }
+
+/**
+ * Computes a debounce window from how fast the user is typing and how long a request takes.
+ *
+ * We wait for a pause in typing that is longer than the usual gap between keystrokes: a fast typist
+ * gets a short window, a slow typist does not trigger a request per character. On slow networks a
+ * request that gets superseded is more expensive, so the window grows with the round-trip time.
+ */
+class AdaptiveDebounce(
+    private val minWindowMs: Long = 50,
+    private val maxWindowMs: Long = 400,
+    initialTypingIntervalMs: Long = 100
+) {
+    private var typingIntervalMs = initialTypingIntervalMs.toDouble()
+    private var roundTripMs = 0.0
+    private var lastInput = -1L
+
+    /**
+     * The user has changed the input at [now] (ms).
+     */
+    @Synchronized
+    fun onInput(now: Long) {
+        val interval = now - lastInput
+        lastInput = now
+
+        // Longer gaps are pauses, not typing speed.
+        if (interval in 1..MAX_TYPING_INTERVAL_MS) {
+            typingIntervalMs += SMOOTHING * (interval - typingIntervalMs)
+        }
+    }
+
+    @Synchronized
+    fun onRoundTrip(durationMs: Long) {
+        roundTripMs = if (roundTripMs == 0.0) {
+            durationMs.toDouble()
+        } else {
+            roundTripMs + SMOOTHING * (durationMs - roundTripMs)
+        }
+    }
+
+    @Synchronized
+    fun windowMs(): Long {
+        val window = Math.max(typingIntervalMs * TYPING_FACTOR, roundTripMs * ROUND_TRIP_FACTOR).toLong()
+        return Math.min(Math.max(window, minWindowMs), maxWindowMs)
+    }
+
+    companion object {
+        private const val MAX_TYPING_INTERVAL_MS = 1000L
+        private const val SMOOTHING = 0.25
+        private const val TYPING_FACTOR = 1.2
+        private const val ROUND_TRIP_FACTOR = 0.25
+    }
+}
@@ -0,0 +1,115 @@
+/* This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/. */
+
+package org.mozilla.focus.utils
+
+import android.support.annotation.WorkerThread
+import android.util.AtomicFile
+import android.util.Log
+import mozilla.components.service.fretboard.ExperimentDescriptor
+import java.io.DataInputStream
+import java.io.DataOutputStream
+import java.io.File
+import java.io.IOException
+
+/**
+ * The resolved experiment decisions of the last run: whether we are in each of the experiments the
+ * app knows about and the names of all active experiments (for telemetry).
+ *
+ * Loading all experiments with Fretboard means reading and parsing a JSON file. The snapshot is a
+ * tiny binary file that can be read with a single small read during startup, so that we can pick
+ * the engine before Fretboard has loaded. The snapshot is only valid for the app version that
+ * wrote it.
+ */
+class ExperimentSnapshot(
+    private val decisions: Map<String, Boolean>,
+    val activeExperimentNames: List<String>
+) {
+    fun isInExperiment(descriptor: ExperimentDescriptor): Boolean {
+        val decision = decisions[descriptor.name]
+        if (decision == null) {
+            Log.w(LOG_TAG, "No snapshot for experiment ${descriptor.name}")
+        }
+        return decision ?: false
+    }
+
+    @WorkerThread
+    fun write(file: File, appVersion: Int) {
+        val atomicFile = AtomicFile(file)
+        val stream = atomicFile.startWrite()
+
+        try {
+            DataOutputStream(stream).apply {
+                writeInt(MAGIC)
+                writeInt(appVersion)
+
+                writeShort(decisions.size)
+                decisions.forEach { (name, inExperiment) ->
+                    writeUTF(name)
+                    writeBoolean(inExperiment)
+                }
+
+                writeShort(activeExperimentNames.size)
+                activeExperimentNames.forEach { writeUTF(it) }
+
+                flush()
+            }
+
+            atomicFile.finishWrite(stream)
+        } catch (e: IOException) {
+            Log.w(LOG_TAG, "Could not write experiment snapshot", e)
+            atomicFile.failWrite(stream)
+        }
+    }
+
+    override fun equals(other: Any?): Boolean = other is ExperimentSnapshot &&
+        decisions == other.decisions && activeExperimentNames == other.activeExperimentNames
+
+    override fun hashCode(): Int = 31 * decisions.hashCode() + activeExperimentNames.hashCode()
+
+    companion object {
+        private const val LOG_TAG = "ExperimentSnapshot"
+        private const val MAGIC = 0x46455831 // "FEX1"
+
+        /**
+         * Read the snapshot. Returns null if there's no snapshot or if it has been written by a
+         * different app version. A corrupt snapshot is deleted (and a new one is written once the
+         * experiments have been loaded).
+         */
+        @WorkerThread
+        fun read(file: File, appVersion: Int): ExperimentSnapshot? {
+            if (!file.exists()) {
+                return null
+            }
+
+            val atomicFile = AtomicFile(file)
+
+            return try {
+                DataInputStream(atomicFile.openRead().buffered()).use { input ->
+                    if (input.readInt() != MAGIC || input.readInt() != appVersion) {
+                        return null
+                    }
+
+                    val decisions = LinkedHashMap<String, Boolean>()
+                    repeat(input.readShort().toInt()) {
+                        decisions[input.readUTF()] = input.readBoolean()
+                    }
+
+                    val names = List(input.readShort().toInt()) { input.readUTF() }
+
+                    ExperimentSnapshot(decisions, names)
+                }
+            } catch (e: IOException) {
+                Log.w(LOG_TAG, "Could not read experiment snapshot", e)
+                atomicFile.delete()
+                null
+            } catch (e: RuntimeException) {
+                // E.g. a corrupt (negative) count. This runs on every start: Don't crash on it.
+                Log.w(LOG_TAG, "Corrupt experiment snapshot", e)
+                atomicFile.delete()
+                null
+            }
+        }
+    }
+}
@@ -17,12 +17,30 @@ const val EXPERIMENTS_COLLECTION_NAME = "focus-experiments"
 val geckoEngineExperimentDescriptor = ExperimentDescriptor(Config.EXPERIMENT_DESCRIPTOR_GECKOVIEW_ENGINE)
 val homeScreenTipsExperimentDescriptor = ExperimentDescriptor(Config.EXPERIMENT_DESCRIPTOR_HOME_SCREEN_TIPS)
 
+/**
+ * The experiments the app checks. Their decisions are kept in the [ExperimentSnapshot].
+ */
+val knownExperimentDescriptors = listOf(geckoEngineExperimentDescriptor, homeScreenTipsExperimentDescriptor)
+
 val Context.app: FocusApplication
     get() = applicationContext as FocusApplication
 
-fun Context.isInExperiment(descriptor: ExperimentDescriptor): Boolean =
+fun Context.isInExperiment(descriptor: ExperimentDescriptor): Boolean {
+    val snapshot = app.experimentSnapshot
+    return if (app.isExperimentsLoaded || snapshot == null) {
         app.fretboard.isInExperiment(this, descriptor)
+    } else {
+        snapshot.isInExperiment(descriptor)
+    }
+}
 
 val Context.activeExperimentNames: List<String>
-    get() = app.fretboard.getExperimentsMap(this)
-            .map { it.key + if (it.value) ":B" else ":A" }
+    get() {
+        val snapshot = app.experimentSnapshot
+        return if (app.isExperimentsLoaded || snapshot == null) {
+            app.fretboard.getExperimentsMap(this)
+                    .map { it.key + if (it.value) ":B" else ":A" }
+        } else {
+            snapshot.activeExperimentNames
+        }
+    }
@@ -6,20 +6,30 @@ import android.support.annotation.NonNull;
 import android.support.annotation.Nullable;
 import android.support.annotation.RawRes;
 import android.util.Base64;
+import android.util.SparseArray;
 
 import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.Map;
 
 public class HtmlLoader {
+    // Raw resources and drawables can't change while the app is running. We only keep the few
+    // internal pages we render ourselves (error page, focus:about, focus:rights) in here.
+    private static final SparseArray<HtmlTemplate> templateCache = new SparseArray<>();
+    private static final SparseArray<String> dataUriCache = new SparseArray<>();
 
     /**
      * Load a given (html or css) resource file into a String. The input can contain tokens that will
      * be replaced with localised strings.
      *
+     * The resource is only read and parsed the first time it is requested, following calls just
+     * render the cached template.
+     *
      * @param substitutionTable A table of substitions, e.g. %shortMessage% -> "Error loading page..."
      *                          Can be null, in which case no substitutions will be made.
      * @return The file content, with all substitutions having being made.
@@ -27,7 +37,29 @@ public class HtmlLoader {
     public static String loadResourceFile(@NonNull final Context context,
                                            @NonNull final @RawRes int resourceID,
                                            @Nullable final Map<String, String> substitutionTable) {
+        final Collection<String> placeholders = substitutionTable != null
+                ? substitutionTable.keySet()
+                : Collections.<String>emptySet();
+
+        return getTemplate(context, resourceID, placeholders).render(substitutionTable);
+    }
+
+    private static HtmlTemplate getTemplate(@NonNull final Context context,
+                                            @RawRes final int resourceID,
+                                            @NonNull final Collection<String> placeholders) {
+        synchronized (templateCache) {
+            HtmlTemplate template = templateCache.get(resourceID);
 
+            if (template == null || !template.knowsPlaceholders(placeholders)) {
+                template = HtmlTemplate.parse(readResourceFile(context, resourceID), placeholders);
+                templateCache.put(resourceID, template);
+            }
+
+            return template;
+        }
+    }
+
+    private static String readResourceFile(@NonNull final Context context, @RawRes final int resourceID) {
         try (final BufferedReader fileReader =
                      new BufferedReader(new InputStreamReader(context.getResources().openRawResource(resourceID), StandardCharsets.UTF_8))) {
 
@@ -35,12 +67,6 @@ public class HtmlLoader {
 
             String line;
             while ((line = fileReader.readLine()) != null) {
-                if (substitutionTable != null) {
-                    for (final Map.Entry<String, String> entry : substitutionTable.entrySet()) {
-                        line = line.replace(entry.getKey(), entry.getValue());
-                    }
-                }
-
                 outputBuffer.append(line);
             }
 
@@ -50,10 +76,42 @@ public class HtmlLoader {
         }
     }
 
+    /**
+     * Drop all cached templates and data URIs. They will be loaded again on demand.
+     *
+     * @return The number of removed entries.
+     */
+    public static int clearCache() {
+        int removed = 0;
+        synchronized (templateCache) {
+            removed += templateCache.size();
+            templateCache.clear();
+        }
+        synchronized (dataUriCache) {
+            removed += dataUriCache.size();
+            dataUriCache.clear();
+        }
+        return removed;
+    }
+
     private final static byte[] pngHeader = new byte[] { -119, 80, 78, 71, 13, 10, 26, 10 };
 
     public static String loadPngAsDataURI(@NonNull final Context context,
                                           @NonNull final @DrawableRes int resourceID) {
+        synchronized (dataUriCache) {
+            String dataUri = dataUriCache.get(resourceID);
+
+            if (dataUri == null) {
+                dataUri = encodePngAsDataURI(context, resourceID);
+                dataUriCache.put(resourceID, dataUri);
+            }
+
+            return dataUri;
+        }
+    }
+
+    private static String encodePngAsDataURI(@NonNull final Context context,
+                                             @DrawableRes final int resourceID) {
 
         final StringBuilder builder = new StringBuilder();
         builder.append("data:image/png;base64,");
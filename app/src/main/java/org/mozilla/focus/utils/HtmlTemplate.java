@@ -0,0 +1,106 @@
+/* This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/. */
+
+package org.mozilla.focus.utils;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * A pre-parsed (html or css) template: The raw content is split into literal segments and placeholders
+ * once, so that rendering is a single pass over the segments instead of one String.replace() per
+ * placeholder and line.
+ *
+ * Only the placeholders passed to {@link #parse(String, Collection)} are recognized - other
+ * occurrences of '%' (e.g. "width: 100%" in css) are kept as they are.
+ */
+public final class HtmlTemplate {
+    private final String[] literals;
+    private final String[] placeholders;
+    private final Set<String> knownPlaceholders;
+    private final int literalLength;
+
+    private HtmlTemplate(List<String> literals, List<String> placeholders, Set<String> knownPlaceholders) {
+        this.literals = literals.toArray(new String[literals.size()]);
+        this.placeholders = placeholders.toArray(new String[placeholders.size()]);
+        this.knownPlaceholders = knownPlaceholders;
+
+        int length = 0;
+        for (final String literal : this.literals) {
+            length += literal.length();
+        }
+        this.literalLength = length;
+    }
+
+    public static HtmlTemplate parse(@NonNull final String raw, @NonNull final Collection<String> placeholders) {
+        final List<String> literals = new ArrayList<>();
+        final List<String> foundPlaceholders = new ArrayList<>();
+
+        int position = 0;
+
+        while (true) {
+            // Find the placeholder that occurs next
+            int nextIndex = -1;
+            String nextPlaceholder = null;
+
+            for (final String placeholder : placeholders) {
+                final int index = raw.indexOf(placeholder, position);
+                if (index != -1 && (nextIndex == -1 || index < nextIndex)) {
+                    nextIndex = index;
+                    nextPlaceholder = placeholder;
+                }
+            }
+
+            if (nextPlaceholder == null) {
+                break;
+            }
+
+            literals.add(raw.substring(position, nextIndex));
+            foundPlaceholders.add(nextPlaceholder);
+            position = nextIndex + nextPlaceholder.length();
+        }
+
+        literals.add(raw.substring(position));
+
+        return new HtmlTemplate(literals, foundPlaceholders,
+                Collections.unmodifiableSet(new HashSet<>(placeholders)));
+    }
+
+    /**
+     * Returns true if this template was parsed with (at least) all the given placeholders.
+     */
+    public boolean knowsPlaceholders(@NonNull final Collection<String> placeholders) {
+        return knownPlaceholders.containsAll(placeholders);
+    }
+
+    /**
+     * Render the template. Placeholders without a value in the table are kept as they are.
+     */
+    public String render(@Nullable final Map<String, String> substitutionTable) {
+        if (placeholders.length == 0) {
+            return literals[0];
+        }
+
+        final StringBuilder builder = new StringBuilder(literalLength + 256 * placeholders.length);
+
+        for (int i = 0; i < placeholders.length; i++) {
+            builder.append(literals[i]);
+
+            final String value = substitutionTable != null ? substitutionTable.get(placeholders[i]) : null;
+            builder.append(value != null ? value : placeholders[i]);
+        }
+
+        builder.append(literals[literals.length - 1]);
+
+        return builder.toString();
+    }
+}
@@ -0,0 +1,73 @@
+/* This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/. */
+
+package org.mozilla.focus.utils
+
+import okhttp3.Call
+import okhttp3.ConnectionPool
+import okhttp3.EventListener
+import okhttp3.OkHttpClient
+import okhttp3.Protocol
+import java.net.InetSocketAddress
+import java.net.Proxy
+import java.util.concurrent.TimeUnit
+import java.util.concurrent.atomic.AtomicInteger
+
+/**
+ * The HTTP client for all requests the app makes itself (not the requests of the engines).
+ *
+ * All clients share one connection pool and dispatcher, so that a burst of search suggestion
+ * requests while typing reuses the same (HTTP/2) connection. There's no disk cache and no cookie
+ * jar: nothing of these requests is kept on disk. The pooled connections are closed when the user
+ * erases their browsing session.
+ */
+object HttpClients {
+    private const val MAX_IDLE_CONNECTIONS = 4
+    private const val KEEP_ALIVE_MINUTES = 2L
+
+    private val calls = AtomicInteger()
+    private val newConnections = AtomicInteger()
+
+    val shared: OkHttpClient by lazy {
+        OkHttpClient.Builder()
+            .connectionPool(ConnectionPool(MAX_IDLE_CONNECTIONS, KEEP_ALIVE_MINUTES, TimeUnit.MINUTES))
+            .protocols(listOf(Protocol.HTTP_2, Protocol.HTTP_1_1))
+            .cache(null)
+            .eventListener(ConnectionMetrics())
+            .build()
+    }
+
+    /**
+     * A client with its own connect/read/write timeouts that still shares the connection pool of
+     * [shared].
+     */
+    fun withTimeout(timeoutMs: Long): OkHttpClient = shared.newBuilder()
+        .connectTimeout(timeoutMs, TimeUnit.MILLISECONDS)
+        .readTimeout(timeoutMs, TimeUnit.MILLISECONDS)
+        .writeTimeout(timeoutMs, TimeUnit.MILLISECONDS)
+        .build()
+
+    /**
+     * Number of calls that did not have to open a new connection.
+     */
+    val reusedConnections: Int
+        get() = Math.max(0, calls.get() - newConnections.get())
+
+    fun report(): String {
+        val callCount = calls.get()
+        val reuseRate = if (callCount > 0) 100 * reusedConnections / callCount else 0
+        return "calls=$callCount new connections=${newConnections.get()} reused=$reusedConnections " +
+            "($reuseRate%) idle=${shared.connectionPool().idleConnectionCount()}"
+    }
+
+    private class ConnectionMetrics : EventListener() {
+        override fun callStart(call: Call) {
+            calls.incrementAndGet()
+        }
+
+        override fun connectStart(call: Call, inetSocketAddress: InetSocketAddress, proxy: Proxy) {
+            newConnections.incrementAndGet()
+        }
+    }
+}
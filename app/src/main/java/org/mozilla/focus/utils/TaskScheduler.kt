@@ -0,0 +1,167 @@
+/* This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/. */
+
+package org.mozilla.focus.utils
+
+import android.os.Process
+import android.util.Log
+import kotlinx.coroutines.experimental.CoroutineDispatcher
+import kotlinx.coroutines.experimental.asCoroutineDispatcher
+import java.util.ArrayDeque
+import java.util.concurrent.Executor
+import java.util.concurrent.LinkedBlockingQueue
+import java.util.concurrent.ThreadFactory
+import java.util.concurrent.ThreadPoolExecutor
+import java.util.concurrent.TimeUnit
+import java.util.concurrent.atomic.AtomicInteger
+import java.util.concurrent.atomic.AtomicLong
+
+/**
+ * The app wide executor for background work. Work is submitted to one of two lanes:
+ *
+ * - [Lane.USER_BLOCKING]: Work the user is waiting for (e.g. loading the tracking protection lists,
+ *   fetching search suggestions, saving a custom domain).
+ * - [Lane.DEFERRABLE]: Work nobody is waiting for (e.g. telemetry, cleanup, writing debug files).
+ *
+ * Every lane has its own bounded pool of threads, so deferrable work can never occupy a thread the
+ * page-critical path needs. Deferrable threads also run with background priority.
+ */
+object TaskScheduler {
+    private const val LOG_TAG = "TaskScheduler"
+    private const val KEEP_ALIVE_SECONDS = 30L
+    private const val SLOW_WAIT_MS = 100L
+    private const val NANOS_PER_MILLI = 1_000_000L
+
+    enum class Lane(val threads: Int, val threadPriority: Int) {
+        USER_BLOCKING(
+            Math.max(2, Math.min(Runtime.getRuntime().availableProcessors(), 4)),
+            Process.THREAD_PRIORITY_DEFAULT),
+        DEFERRABLE(1, Process.THREAD_PRIORITY_BACKGROUND)
+    }
+
+    /**
+     * A snapshot of the metrics of a lane. Wait times are measured from submitting a task until a
+     * thread starts running it.
+     */
+    data class Stats(
+        val queueDepth: Int,
+        val maxQueueDepth: Int,
+        val executedTasks: Long,
+        val averageWaitMs: Long,
+        val maxWaitMs: Long
+    )
+
+    private val executors by lazy { Lane.values().associate { it to LaneExecutor(it) } }
+
+    @JvmStatic
+    val userBlocking: CoroutineDispatcher by lazy { executor(Lane.USER_BLOCKING).asCoroutineDispatcher() }
+
+    @JvmStatic
+    val deferrable: CoroutineDispatcher by lazy { executor(Lane.DEFERRABLE).asCoroutineDispatcher() }
+
+    @JvmStatic
+    fun executor(lane: Lane): Executor = executors[lane]!!
+
+    @JvmStatic
+    fun execute(lane: Lane, task: Runnable) {
+        executor(lane).execute(task)
+    }
+
+    @JvmStatic
+    fun stats(lane: Lane): Stats = executors[lane]!!.stats()
+
+    /**
+     * Returns an executor that runs its tasks one at a time, in the order they were submitted, on the
+     * threads of the given lane. Unlike a thread of its own it doesn't keep a thread around while idle.
+     */
+    @JvmStatic
+    fun serial(lane: Lane): Executor = SerialExecutor(executor(lane))
+
+    private class SerialExecutor(private val executor: Executor) : Executor {
+        private val tasks = ArrayDeque<Runnable>()
+        private var active: Runnable? = null
+
+        @Synchronized
+        override fun execute(task: Runnable) {
+            tasks.offer(Runnable {
+                try {
+                    task.run()
+                } finally {
+                    scheduleNext()
+                }
+            })
+
+            if (active == null) {
+                scheduleNext()
+            }
+        }
+
+        @Synchronized
+        private fun scheduleNext() {
+            active = tasks.poll()
+            active?.let { executor.execute(it) }
+        }
+    }
+
+    private class LaneExecutor(private val lane: Lane) : Executor {
+        private val threadCount = AtomicInteger(0)
+        private val maxQueueDepth = AtomicInteger(0)
+        private val executedTasks = AtomicLong(0)
+        private val totalWaitNanos = AtomicLong(0)
+        private val maxWaitNanos = AtomicLong(0)
+
+        private val pool = ThreadPoolExecutor(
+            lane.threads, lane.threads, KEEP_ALIVE_SECONDS, TimeUnit.SECONDS, LinkedBlockingQueue<Runnable>(),
+            ThreadFactory { runnable ->
+                val name = "focus-${lane.name.toLowerCase()}-${threadCount.incrementAndGet()}"
+                Thread({
+                    Process.setThreadPriority(lane.threadPriority)
+                    runnable.run()
+                }, name)
+            }
+        ).apply {
+            // Do not keep idle threads around if there's no work.
+            allowCoreThreadTimeOut(true)
+        }
+
+        override fun execute(task: Runnable) {
+            val submitted = System.nanoTime()
+
+            pool.execute {
+                onStart(System.nanoTime() - submitted)
+                task.run()
+            }
+
+            val depth = pool.queue.size
+            do {
+                val max = maxQueueDepth.get()
+            } while (depth > max && !maxQueueDepth.compareAndSet(max, depth))
+        }
+
+        private fun onStart(waitNanos: Long) {
+            executedTasks.incrementAndGet()
+            totalWaitNanos.addAndGet(waitNanos)
+
+            do {
+                val max = maxWaitNanos.get()
+            } while (waitNanos > max && !maxWaitNanos.compareAndSet(max, waitNanos))
+
+            if (lane == Lane.USER_BLOCKING && waitNanos / NANOS_PER_MILLI > SLOW_WAIT_MS) {
+                Log.w(LOG_TAG, "User blocking task waited ${waitNanos / NANOS_PER_MILLI} ms " +
+                    "(queue depth: ${pool.queue.size})")
+            }
+        }
+
+        fun stats(): Stats {
+            val executed = executedTasks.get()
+            return Stats(
+                queueDepth = pool.queue.size,
+                maxQueueDepth = maxQueueDepth.get(),
+                executedTasks = executed,
+                averageWaitMs = if (executed == 0L) 0 else totalWaitNanos.get() / executed / NANOS_PER_MILLI,
+                maxWaitMs = maxWaitNanos.get() / NANOS_PER_MILLI
+            )
+        }
+    }
+}
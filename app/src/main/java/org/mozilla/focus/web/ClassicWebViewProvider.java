@@ -25,6 +25,8 @@ import org.mozilla.focus.utils.Settings;
 import org.mozilla.focus.webview.SystemWebView;
 import org.mozilla.focus.webview.TrackingProtectionWebViewClient;
 
+import java.util.Set;
+
 /**
  * WebViewProvider for creating a WebView based IWebView implementation.
  */
@@ -128,17 +130,34 @@ public class ClassicWebViewProvider implements IWebViewProvider {
 
     @Override
     public void applyAppSettings(@NotNull Context context, @NotNull WebSettings webSettings, @NotNull SystemWebView systemWebView) {
+        applySettingsChanges(context, webSettings, systemWebView, EngineSettings.ALL_CHANGES);
+    }
+
+    /**
+     * Apply only the given subset of settings. Clearing the cache and reloading is left to the caller:
+     * only the caller knows whether those changes are relevant for the page it is showing.
+     */
+    @Override
+    @SuppressLint("SetJavaScriptEnabled") // We explicitly want to enable JavaScript
+    public void applySettingsChanges(@NotNull Context context, @NotNull WebSettings webSettings,
+                                     @NotNull SystemWebView systemWebView, @NotNull Set<EngineSettings.Change> changes) {
+        final Settings settings = Settings.getInstance(context);
+
+        if (changes.contains(EngineSettings.Change.IMAGES)) {
+            // We could consider calling setLoadsImagesAutomatically() here too (This will block images not loaded over the network too)
+            webSettings.setBlockNetworkImage(settings.shouldBlockImages());
+        }
 
-        // Clear the cache so trackers previously loaded are removed
-        systemWebView.clearCache(true);
+        if (changes.contains(EngineSettings.Change.JAVASCRIPT)) {
+            webSettings.setJavaScriptEnabled(!settings.shouldBlockJavaScript());
+        }
+
+        if (changes.contains(EngineSettings.Change.COOKIES)) {
+            CookieManager.getInstance().setAcceptThirdPartyCookies(systemWebView, !settings.shouldBlockThirdPartyCookies());
+            CookieManager.getInstance().setAcceptCookie(!settings.shouldBlockCookies());
+        }
 
-        // We could consider calling setLoadsImagesAutomatically() here too (This will block images not loaded over the network too)
-        webSettings.setBlockNetworkImage(Settings.getInstance(context).shouldBlockImages());
-        webSettings.setJavaScriptEnabled(!Settings.getInstance(context).shouldBlockJavaScript());
-        CookieManager.getInstance().setAcceptThirdPartyCookies(systemWebView, !Settings.getInstance
-                (context).shouldBlockThirdPartyCookies());
-        CookieManager.getInstance().setAcceptCookie(!Settings.getInstance(context)
-                .shouldBlockCookies());
+        // TRACKERS: Nothing to apply here - UrlMatcher listens for the category preferences itself.
     }
 
     @Override
@@ -8,6 +8,10 @@ import android.content.Context
 import mozilla.components.browser.session.Session
 import mozilla.components.browser.session.SessionManager
 import org.mozilla.focus.ext.components
+import org.mozilla.focus.searchsuggestions.SuggestionCache
+import org.mozilla.focus.utils.BrowsersCache
+import org.mozilla.focus.utils.HttpClients
+import org.mozilla.focus.utils.TaskScheduler
 
 class CleanupSessionObserver(
     private val context: Context
@@ -15,11 +19,24 @@ class CleanupSessionObserver(
 
     override fun onSessionRemoved(session: Session) {
         if (context.components.sessionManager.sessions.isEmpty()) {
-            WebViewProvider.performCleanup(context)
+            cleanup()
         }
     }
 
     override fun onAllSessionsRemoved() {
+        cleanup()
+    }
+
+    private fun cleanup() {
         WebViewProvider.performCleanup(context)
+        SuggestionCache.clear()
+        // The cache is keyed by the URLs the user has visited.
+        BrowsersCache.invalidate()
+
+        // Idle connections would let the next request resume the TLS session of this one. Closing
+        // the sockets can block, so this doesn't happen on the main thread.
+        TaskScheduler.execute(TaskScheduler.Lane.USER_BLOCKING, Runnable {
+            HttpClients.shared.connectionPool().evictAll()
+        })
     }
 }
@@ -0,0 +1,93 @@
+/* This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/. */
+
+package org.mozilla.focus.web
+
+import android.content.Context
+import org.mozilla.focus.utils.Settings
+
+/**
+ * Snapshot of the app settings that have an effect on the engine. Comparing two snapshots tells us
+ * which settings actually need to be re-applied after a preference change - most preference writes
+ * (telemetry, autocomplete, search, ..) do not touch the engine at all.
+ */
+data class EngineSettings(
+    val blockImages: Boolean,
+    val blockJavaScript: Boolean,
+    val blockWebFonts: Boolean,
+    val blockCookies: Boolean,
+    val blockThirdPartyCookies: Boolean,
+    val blockAdTrackers: Boolean,
+    val blockAnalyticTrackers: Boolean,
+    val blockSocialTrackers: Boolean,
+    val blockOtherTrackers: Boolean
+) {
+    /**
+     * An engine setting that can change independently of the others.
+     *
+     * [clearsCache]: Resources loaded with the previous value might still be served from the cache
+     * (e.g. trackers that are now blocked).
+     * [requiresReload]: The new value only takes effect for the current page after a reload.
+     */
+    enum class Change(val clearsCache: Boolean, val requiresReload: Boolean) {
+        IMAGES(false, true),
+        JAVASCRIPT(false, true),
+        COOKIES(false, true),
+        TRACKERS(true, true)
+    }
+
+    /**
+     * Returns the set of changes needed to go from [previous] to this snapshot. If there is no
+     * previous snapshot then every setting is considered changed.
+     */
+    fun changesFrom(previous: EngineSettings?): Set<Change> {
+        if (previous == null) {
+            return ALL_CHANGES
+        }
+
+        val changes = mutableSetOf<Change>()
+
+        if (blockImages != previous.blockImages) {
+            changes.add(Change.IMAGES)
+        }
+        if (blockJavaScript != previous.blockJavaScript) {
+            changes.add(Change.JAVASCRIPT)
+        }
+        if (blockCookies != previous.blockCookies ||
+            blockThirdPartyCookies != previous.blockThirdPartyCookies) {
+            changes.add(Change.COOKIES)
+        }
+        if (blockWebFonts != previous.blockWebFonts ||
+            blockAdTrackers != previous.blockAdTrackers ||
+            blockAnalyticTrackers != previous.blockAnalyticTrackers ||
+            blockSocialTrackers != previous.blockSocialTrackers ||
+            blockOtherTrackers != previous.blockOtherTrackers) {
+            changes.add(Change.TRACKERS)
+        }
+
+        return changes
+    }
+
+    companion object {
+        @JvmField
+        val ALL_CHANGES: Set<Change> = Change.values().toSet()
+
+        @JvmStatic
+        fun from(context: Context): EngineSettings {
+            val settings = Settings.getInstance(context)
+
+            return EngineSettings(
+                blockImages = settings.shouldBlockImages(),
+                blockJavaScript = settings.shouldBlockJavaScript(),
+                blockWebFonts = settings.shouldBlockWebFonts(),
+                blockCookies = settings.shouldBlockCookies(),
+                blockThirdPartyCookies = settings.shouldBlockThirdPartyCookies(),
+                blockAdTrackers = settings.shouldBlockAdTrackers(),
+                blockAnalyticTrackers = settings.shouldBlockAnalyticTrackers(),
+                blockSocialTrackers = settings.shouldBlockSocialTrackers(),
+                blockOtherTrackers = settings.shouldBlockOtherTrackers()
+            )
+        }
+    }
+}
@@ -0,0 +1,229 @@
+/* This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/. */
+
+package org.mozilla.focus.web
+
+import android.content.Context
+import android.os.SystemClock
+import android.support.annotation.MainThread
+import android.support.annotation.VisibleForTesting
+import android.util.Log
+import mozilla.components.support.utils.ThreadUtils
+import org.mozilla.focus.utils.FileUtils
+import org.mozilla.focus.utils.TaskScheduler
+import java.util.ArrayDeque
+import java.util.Collections
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.Executor
+import java.util.concurrent.atomic.AtomicInteger
+
+/**
+ * Coordinates the steps of an erase: The WebView API calls run synchronously on the main thread,
+ * the independent disk deletions run in parallel on background threads.
+ *
+ * Loading a new URL must not race with a running disk deletion (we would delete the data of the
+ * new session). Engines load URLs through [runAfterPendingErase], which queues the load until every
+ * erase that has been started has completed.
+ */
+object EraseOrchestrator {
+    private const val LOG_TAG = "EraseOrchestrator"
+
+    const val STEP_WEBVIEW_DATA = "webview_data"
+    const val STEP_COOKIES = "cookies"
+    const val STEP_WEB_STORAGE = "web_storage"
+    const val STEP_WEBVIEW_DIRECTORY = "webview_directory"
+    const val STEP_CACHE_DIRECTORY = "cache_directory"
+
+    // Erases that have been started but haven't completed yet. Guarded by itself.
+    private val pendingErases = HashSet<Erase>()
+
+    // Actions queued by runAfterPendingErase() that haven't run yet. Only accessed on the main thread.
+    private val queuedActions = ArrayDeque<() -> Unit>()
+
+    @VisibleForTesting
+    internal var mainThread = Executor { ThreadUtils.postToMainThread(it) }
+
+    private val hasPendingErase: Boolean
+        get() = synchronized(pendingErases) { pendingErases.isNotEmpty() }
+
+    /**
+     * Start a new erase. Steps can be added until [Erase.seal] is called.
+     */
+    @JvmStatic
+    fun begin(): Erase {
+        val erase = Erase()
+        synchronized(pendingErases) { pendingErases.add(erase) }
+        return erase
+    }
+
+    /**
+     * Delete the data WebView leaves behind on disk. The webview and cache directories are deleted
+     * in parallel on background threads. Loading the next page waits for them, so they run in the
+     * user blocking lane.
+     */
+    @JvmStatic
+    @JvmOverloads
+    fun deleteContentFromKnownLocations(context: Context, erase: Erase = begin()): Erase {
+        // One erase calls this several times (e.g. when the tab is cleaned up and again when its view
+        // is destroyed). Deleting the same directories in parallel doesn't delete anything more.
+        val isAlreadyDeleting = synchronized(pendingErases) {
+            pendingErases.any { it.deletesKnownLocations }.also {
+                erase.deletesKnownLocations = !it
+            }
+        }
+        if (isAlreadyDeleting) {
+            erase.seal()
+            return erase
+        }
+
+        val executor = TaskScheduler.executor(TaskScheduler.Lane.USER_BLOCKING)
+
+        // We call all methods on WebView to delete data. But some traces still remain
+        // on disk. This will wipe the whole webview directory.
+        erase.runInBackground(executor, STEP_WEBVIEW_DIRECTORY) {
+            FileUtils.deleteWebViewDirectory(context)
+        }
+
+        // WebView stores some files in the cache directory. We do not use it ourselves
+        // so let's truncate it.
+        erase.runInBackground(executor, STEP_CACHE_DIRECTORY) {
+            FileUtils.truncateCacheDirectory(context)
+        }
+
+        erase.seal()
+
+        return erase
+    }
+
+    /**
+     * Run [action] on the main thread once all erases have completed. Erases usually finish long
+     * before the user has typed the next URL: Then the action runs right away. Otherwise it is
+     * queued (without blocking the main thread) and actions run in the order they were queued.
+     */
+    @JvmStatic
+    @MainThread
+    fun runAfterPendingErase(action: () -> Unit) {
+        if (queuedActions.isEmpty() && !hasPendingErase) {
+            action()
+            return
+        }
+
+        queuedActions.add(action)
+
+        if (!hasPendingErase) {
+            // The erases have completed but the queued actions haven't run yet: Run this one after them.
+            mainThread.execute { runQueuedActions() }
+        }
+    }
+
+    @MainThread
+    private fun runQueuedActions() {
+        // An action can start a new erase: The remaining actions wait for that one, too.
+        while (queuedActions.isNotEmpty() && !hasPendingErase) {
+            queuedActions.poll()()
+        }
+    }
+
+    private fun onEraseCompleted(erase: Erase) {
+        val isLastErase = synchronized(pendingErases) {
+            pendingErases.remove(erase)
+            pendingErases.isEmpty()
+        }
+
+        if (isLastErase) {
+            mainThread.execute { runQueuedActions() }
+        }
+    }
+
+    class Erase internal constructor() {
+        private val startTime = SystemClock.elapsedRealtime()
+        // One pending token is held until the erase is sealed: this way we can't complete
+        // while steps are still being added.
+        private val pendingSteps = AtomicInteger(1)
+        private val latch = CountDownLatch(1)
+        private val listeners = mutableListOf<() -> Unit>()
+        private val stepTimings = Collections.synchronizedMap(LinkedHashMap<String, Long>())
+
+        @Volatile
+        var totalTime: Long = -1
+            private set
+
+        // Whether this erase deletes the webview and cache directories. Guarded by pendingErases.
+        internal var deletesKnownLocations = false
+
+        val isComplete: Boolean
+            get() = latch.count == 0L
+
+        /**
+         * Time (in ms) each step took. Background steps ran in parallel, so the sum of all steps
+         * can be larger than [totalTime].
+         */
+        val timings: Map<String, Long>
+            get() = synchronized(stepTimings) { LinkedHashMap(stepTimings) }
+
+        /**
+         * Run a step synchronously on the calling thread and record its timing.
+         */
+        fun <T> measure(step: String, block: () -> T): T {
+            val start = SystemClock.elapsedRealtime()
+            try {
+                return block()
+            } finally {
+                stepTimings[step] = SystemClock.elapsedRealtime() - start
+            }
+        }
+
+        internal fun runInBackground(executor: Executor, step: String, block: () -> Unit) {
+            pendingSteps.incrementAndGet()
+
+            executor.execute {
+                try {
+                    measure(step, block)
+                } finally {
+                    onStepCompleted()
+                }
+            }
+        }
+
+        internal fun seal() {
+            onStepCompleted()
+        }
+
+        /**
+         * Add a listener that will be called on the main thread once all steps have completed.
+         */
+        fun addCompletionListener(listener: () -> Unit) {
+            val completed = synchronized(listeners) {
+                if (!isComplete) {
+                    listeners.add(listener)
+                }
+                isComplete
+            }
+
+            if (completed) {
+                mainThread.execute { listener() }
+            }
+        }
+
+        private fun onStepCompleted() {
+            if (pendingSteps.decrementAndGet() != 0) {
+                return
+            }
+
+            totalTime = SystemClock.elapsedRealtime() - startTime
+            Log.d(LOG_TAG, "Erase completed in $totalTime ms: $timings")
+
+            val listenersToNotify = synchronized(listeners) {
+                latch.countDown()
+                listeners.toList().also { listeners.clear() }
+            }
+
+            listenersToNotify.forEach {
+                mainThread.execute { it() }
+            }
+
+            onEraseCompleted(this)
+        }
+    }
+}
@@ -11,7 +11,9 @@ import android.content.SharedPreferences
 import android.net.Uri
 import android.os.Bundle
 import android.os.Environment
+import android.os.Looper
 import android.os.Parcelable
+import android.os.SystemClock
 import android.preference.PreferenceManager
 import android.text.TextUtils
 import android.util.AttributeSet
@@ -23,8 +25,10 @@ import org.json.JSONException
 import org.mozilla.focus.R
 import org.mozilla.focus.browser.LocalizedContent
 import org.mozilla.focus.ext.savedWebViewState
+import org.mozilla.focus.gecko.GeckoSessionPool
 import org.mozilla.focus.gecko.GeckoViewPrompt
 import org.mozilla.focus.gecko.NestedGeckoView
+import org.mozilla.focus.memory.MemoryPressureManager
 import org.mozilla.focus.telemetry.SentryWrapper
 import org.mozilla.focus.telemetry.TelemetryWrapper
 import org.mozilla.focus.utils.AppConstants
@@ -48,6 +52,12 @@ class GeckoWebViewProvider : IWebViewProvider {
     override fun preload(context: Context) {
         sendTelemetryEventOnSwitchToGecko(context)
         createGeckoRuntime(context)
+        sessionPool.scheduleRefill(geckoRuntime!!)
+
+        MemoryPressureManager.register("gecko_session_pool", MemoryPressureManager.Priority.MEDIUM,
+            object : MemoryPressureManager.Trimmable {
+                override fun trim(): Int = sessionPool.clear()
+            })
     }
 
     private fun sendTelemetryEventOnSwitchToGecko(context: Context) {
@@ -65,27 +75,16 @@ class GeckoWebViewProvider : IWebViewProvider {
     }
 
     override fun performCleanup(context: Context) {
-        // Nothing: does Gecko need extra private mode cleanup?
+        // Gecko drops the private browsing data (cookies, cache, storage) once the last private
+        // session has been closed: That includes the sessions waiting in the pool. The pool is
+        // refilled when the first tab of the next browsing session takes a session from it.
+        sessionPool.clear()
     }
 
     override fun performNewBrowserSessionCleanup() {
         // Nothing: a WebKit work-around.
     }
 
-    private fun createGeckoRuntime(context: Context) {
-        if (geckoRuntime == null) {
-            val runtimeSettingsBuilder = GeckoRuntimeSettings.Builder()
-            runtimeSettingsBuilder.useContentProcessHint(true)
-            // Safe browsing is not ready #3309
-            runtimeSettingsBuilder.blockMalware(false)
-            runtimeSettingsBuilder.blockPhishing(false)
-            runtimeSettingsBuilder.nativeCrashReportingEnabled(false)
-            runtimeSettingsBuilder.javaCrashReportingEnabled(false)
-            geckoRuntime =
-                    GeckoRuntime.create(context.applicationContext, runtimeSettingsBuilder.build())
-        }
-    }
-
     override fun requestMobileSite(context: Context, webSettings: WebSettings) {
     }
 
@@ -99,6 +98,14 @@ class GeckoWebViewProvider : IWebViewProvider {
     ) {
     }
 
+    override fun applySettingsChanges(
+        context: Context,
+        webSettings: WebSettings,
+        systemWebView: SystemWebView,
+        changes: Set<EngineSettings.Change>
+    ) {
+    }
+
     override fun disableBlocking(webSettings: WebSettings, systemWebView: SystemWebView) {
     }
 
@@ -118,6 +125,8 @@ class GeckoWebViewProvider : IWebViewProvider {
         private var canGoForward: Boolean = false
         private var isSecure: Boolean = false
         private var geckoSession: GeckoSession
+        private var sessionRequestTime: Long = 0
+        private var sessionFromPool = false
         private var webViewTitle: String? = null
         private var isLoadingInternalUrl = false
         private lateinit var finder: SessionFinder
@@ -126,7 +135,7 @@ class GeckoWebViewProvider : IWebViewProvider {
         init {
             PreferenceManager.getDefaultSharedPreferences(context)
                 .registerOnSharedPreferenceChangeListener(this)
-            geckoSession = createGeckoSession()
+            geckoSession = acquireGeckoSession()
             applySettingsAndSetDelegates()
             setSession(geckoSession, geckoRuntime)
         }
@@ -144,13 +153,28 @@ class GeckoWebViewProvider : IWebViewProvider {
             finder.displayFlags = GeckoSession.FINDER_DISPLAY_HIGHLIGHT_ALL
         }
 
-        private fun createGeckoSession(): GeckoSession {
-            val settings = GeckoSessionSettings()
-            settings.setBoolean(GeckoSessionSettings.USE_MULTIPROCESS, true)
-            settings.setBoolean(GeckoSessionSettings.USE_PRIVATE_MODE, true)
-            settings.setBoolean(GeckoSessionSettings.SUSPEND_MEDIA_WHEN_INACTIVE, true)
+        /**
+         * Take an already opened session from the pool, or create a new one if the pool is empty.
+         */
+        private fun acquireGeckoSession(): GeckoSession {
+            sessionRequestTime = SystemClock.elapsedRealtime()
+
+            val pooledSession = sessionPool.take(geckoRuntime!!)
+            sessionFromPool = pooledSession != null
+
+            return pooledSession ?: GeckoSessionPool.createSession()
+        }
+
+        private fun reportSessionReady() {
+            if (sessionRequestTime == 0L) {
+                return
+            }
 
-            return GeckoSession(settings)
+            // GeckoView does not notify us about the first paint. The first page stop is the closest
+            // signal we have.
+            val latency = SystemClock.elapsedRealtime() - sessionRequestTime
+            Log.i(TAG, "Session requested to first page stop: $latency ms (pooled: $sessionFromPool)")
+            sessionRequestTime = 0
         }
 
         override fun setCallback(callback: IWebView.Callback?) {
@@ -274,23 +298,7 @@ class GeckoWebViewProvider : IWebViewProvider {
         }
 
         private fun updateBlocking() {
-            val settings = Settings.getInstance(context)
-
-            var categories = 0
-            if (settings.shouldBlockSocialTrackers()) {
-                categories += GeckoSession.TrackingProtectionDelegate.CATEGORY_SOCIAL
-            }
-            if (settings.shouldBlockAdTrackers()) {
-                categories += GeckoSession.TrackingProtectionDelegate.CATEGORY_AD
-            }
-            if (settings.shouldBlockAnalyticTrackers()) {
-                categories += GeckoSession.TrackingProtectionDelegate.CATEGORY_ANALYTIC
-            }
-            if (settings.shouldBlockOtherTrackers()) {
-                categories += GeckoSession.TrackingProtectionDelegate.CATEGORY_CONTENT
-            }
-
-            geckoRuntime!!.settings.trackingProtectionCategories = categories
+            geckoRuntime!!.settings.trackingProtectionCategories = getTrackingProtectionCategories(context)
         }
 
         @Suppress("ComplexMethod", "ReturnCount")
@@ -357,9 +365,11 @@ class GeckoWebViewProvider : IWebViewProvider {
                     Log.i(TAG, "Crashed, opening new session")
                     SentryWrapper.captureGeckoCrash()
                     geckoSession.close()
-                    geckoSession = createGeckoSession()
+                    geckoSession = acquireGeckoSession()
                     applySettingsAndSetDelegates()
-                    geckoSession.open(geckoRuntime!!)
+                    if (!geckoSession.isOpen) {
+                        geckoSession.open(geckoRuntime!!)
+                    }
                     setSession(geckoSession)
                     geckoSession.loadUri(currentUrl)
                 }
@@ -394,6 +404,8 @@ class GeckoWebViewProvider : IWebViewProvider {
                 }
 
                 override fun onPageStop(session: GeckoSession, success: Boolean) {
+                    reportSessionReady()
+
                     if (success) {
                         if (UrlUtils.isLocalizedContent(url)) {
                             // When the url is a localized content, then the page is secure
@@ -655,6 +667,7 @@ class GeckoWebViewProvider : IWebViewProvider {
     companion object {
         @Volatile
         private var geckoRuntime: GeckoRuntime? = null
+        private val sessionPool = GeckoSessionPool()
         private var internalAboutData: String? = null
         private var internalRightsData: String? = null
         private const val USER_AGENT =
@@ -668,5 +681,54 @@ class GeckoWebViewProvider : IWebViewProvider {
         const val WEBVIEW_TITLE = "webViewTitle"
         const val CURRENT_URL = "currentUrl"
         const val ABOUT_BLANK = "about:blank"
+
+        /**
+         * Create the runtime once the main thread becomes idle (GeckoRuntime needs to be created on
+         * the main thread). This gets the runtime started before the first tab needs it without
+         * delaying the first frame.
+         */
+        fun scheduleRuntimeCreation(context: Context) {
+            val applicationContext = context.applicationContext
+
+            Looper.myQueue().addIdleHandler {
+                createGeckoRuntime(applicationContext)
+                false
+            }
+        }
+
+        private fun createGeckoRuntime(context: Context) {
+            if (geckoRuntime == null) {
+                val runtimeSettingsBuilder = GeckoRuntimeSettings.Builder()
+                runtimeSettingsBuilder.useContentProcessHint(true)
+                // Safe browsing is not ready #3309
+                runtimeSettingsBuilder.blockMalware(false)
+                runtimeSettingsBuilder.blockPhishing(false)
+                runtimeSettingsBuilder.nativeCrashReportingEnabled(false)
+                runtimeSettingsBuilder.javaCrashReportingEnabled(false)
+                val runtime = GeckoRuntime.create(context.applicationContext, runtimeSettingsBuilder.build())
+                // Apply the tracking protection settings now, so that pooled sessions are ready to use.
+                runtime.settings.trackingProtectionCategories = getTrackingProtectionCategories(context)
+                geckoRuntime = runtime
+            }
+        }
+
+        private fun getTrackingProtectionCategories(context: Context): Int {
+            val settings = Settings.getInstance(context)
+
+            var categories = 0
+            if (settings.shouldBlockSocialTrackers()) {
+                categories += GeckoSession.TrackingProtectionDelegate.CATEGORY_SOCIAL
+            }
+            if (settings.shouldBlockAdTrackers()) {
+                categories += GeckoSession.TrackingProtectionDelegate.CATEGORY_AD
+            }
+            if (settings.shouldBlockAnalyticTrackers()) {
+                categories += GeckoSession.TrackingProtectionDelegate.CATEGORY_ANALYTIC
+            }
+            if (settings.shouldBlockOtherTrackers()) {
+                categories += GeckoSession.TrackingProtectionDelegate.CATEGORY_CONTENT
+            }
+            return categories
+        }
     }
 }
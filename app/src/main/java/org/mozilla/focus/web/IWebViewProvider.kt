@@ -18,6 +18,12 @@ interface IWebViewProvider {
     fun requestMobileSite(context: Context, webSettings: WebSettings)
     fun requestDesktopSite(webSettings: WebSettings)
     fun applyAppSettings(context: Context, webSettings: WebSettings, systemWebView: SystemWebView)
+    fun applySettingsChanges(
+        context: Context,
+        webSettings: WebSettings,
+        systemWebView: SystemWebView,
+        changes: Set<EngineSettings.Change>
+    )
     fun disableBlocking(webSettings: WebSettings, systemWebView: SystemWebView)
     fun getUABrowserString(existingUAString: String, focusToken: String): String
 }
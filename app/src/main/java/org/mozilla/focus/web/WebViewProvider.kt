@@ -8,6 +8,7 @@ import android.content.Context
 import android.util.AttributeSet
 import android.view.View
 import android.webkit.WebSettings
+import org.mozilla.focus.startup.StartupTrace
 import org.mozilla.focus.utils.geckoEngineExperimentDescriptor
 import org.mozilla.focus.utils.isInExperiment
 import org.mozilla.focus.webview.SystemWebView
@@ -26,7 +27,10 @@ object WebViewProvider : IWebViewProvider {
                     Config.DEFAULT_NEW_RENDERER
         engine = when (useNewRenderer) {
             false -> ClassicWebViewProvider()
-            true -> GeckoWebViewProvider()
+            true -> {
+                GeckoWebViewProvider.scheduleRuntimeCreation(context)
+                GeckoWebViewProvider()
+            }
         }
         return engine!!
     }
@@ -36,7 +40,7 @@ object WebViewProvider : IWebViewProvider {
     }
 
     override fun create(context: Context, attributeSet: AttributeSet?): View {
-        return engine!!.create(context, attributeSet)
+        return StartupTrace.traceFirst("first_webview_create") { engine!!.create(context, attributeSet) }
     }
 
     override fun performCleanup(context: Context) {
@@ -63,6 +67,15 @@ object WebViewProvider : IWebViewProvider {
         engine!!.applyAppSettings(context, webSettings, systemWebView)
     }
 
+    override fun applySettingsChanges(
+        context: Context,
+        webSettings: WebSettings,
+        systemWebView: SystemWebView,
+        changes: Set<EngineSettings.Change>
+    ) {
+        engine!!.applySettingsChanges(context, webSettings, systemWebView, changes)
+    }
+
     override fun disableBlocking(webSettings: WebSettings, systemWebView: SystemWebView) {
         engine!!.disableBlocking(webSettings, systemWebView)
     }
@@ -26,15 +26,15 @@ import android.webkit.WebStorage
 import android.webkit.WebView
 import android.webkit.WebViewDatabase
 import mozilla.components.browser.session.Session
-import mozilla.components.support.utils.ThreadUtils
 import org.mozilla.focus.BuildConfig
 import org.mozilla.focus.ext.savedWebViewState
 import org.mozilla.focus.telemetry.TelemetryWrapper
 import org.mozilla.focus.utils.AppConstants
-import org.mozilla.focus.utils.FileUtils
 import org.mozilla.focus.utils.UrlUtils
 import org.mozilla.focus.utils.ViewUtils
 import org.mozilla.focus.web.Download
+import org.mozilla.focus.web.EngineSettings
+import org.mozilla.focus.web.EraseOrchestrator
 import org.mozilla.focus.web.IFindListener
 import org.mozilla.focus.web.IWebView
 import org.mozilla.focus.web.WebViewProvider
@@ -47,6 +47,8 @@ class SystemWebView(context: Context, attrs: AttributeSet) : NestedWebView(conte
     private var callback: IWebView.Callback? = null
     private val client: FocusWebViewClient = FocusWebViewClient(getContext().applicationContext)
     private val linkHandler: LinkHandler
+    private var appliedSettings: EngineSettings? = null
+    private var isDestroyed = false
 
     init {
 
@@ -74,6 +76,10 @@ class SystemWebView(context: Context, attrs: AttributeSet) : NestedWebView(conte
 
         PreferenceManager.getDefaultSharedPreferences(context).registerOnSharedPreferenceChangeListener(this)
 
+        // On the first attach this only records the settings this view was created with. Later on,
+        // settings might have changed while we were detached and not listening.
+        updateEngineSettings()
+
         if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.O) {
             TelemetryAutofillCallback.register(context)
         }
@@ -96,8 +102,39 @@ class SystemWebView(context: Context, attrs: AttributeSet) : NestedWebView(conte
     }
 
     override fun onSharedPreferenceChanged(sharedPreferences: SharedPreferences, key: String) {
-        WebViewProvider.applyAppSettings(context, settings, this)
-        reload()
+        updateEngineSettings()
+    }
+
+    /**
+     * Apply the engine settings that changed since we last applied them. The cache is only cleared
+     * and the page only reloaded if a change is relevant for what this tab is currently showing.
+     */
+    private fun updateEngineSettings() {
+        val current = EngineSettings.from(context)
+        val previous = appliedSettings
+        appliedSettings = current
+
+        if (previous == null || !client.isBlockingEnabled) {
+            // Either everything was applied when this view was created or blocking is disabled
+            // for this tab. In the latter case all settings get applied once blocking is enabled again.
+            return
+        }
+
+        val changes = current.changesFrom(previous)
+        if (changes.isEmpty()) {
+            return
+        }
+
+        if (changes.any { it.clearsCache }) {
+            // Clear the cache so trackers previously loaded are removed
+            clearCache(true)
+        }
+
+        WebViewProvider.applySettingsChanges(context, settings, this, changes)
+
+        if (changes.any { it.requiresReload }) {
+            reload()
+        }
     }
 
     override fun onPause() {
@@ -154,9 +191,16 @@ class SystemWebView(context: Context, attrs: AttributeSet) : NestedWebView(conte
     }
 
     override fun setBlockingEnabled(enabled: Boolean) {
+        val wasEnabled = client.isBlockingEnabled
         client.isBlockingEnabled = enabled
         if (enabled) {
+            if (!wasEnabled) {
+                // Clear the cache so trackers loaded while blocking was disabled are removed. New
+                // views start with blocking enabled, so creating a view doesn't clear the cache.
+                clearCache(true)
+            }
             WebViewProvider.applyAppSettings(context, settings, this)
+            appliedSettings = EngineSettings.from(context)
         } else {
             WebViewProvider.disableBlocking(settings, this)
         }
@@ -189,6 +233,8 @@ class SystemWebView(context: Context, attrs: AttributeSet) : NestedWebView(conte
     }
 
     override fun loadUrl(url: String?) {
+        client.notifyNavigationStart()
+
         // We need to check external URL handling here - shouldOverrideUrlLoading() is only
         // called by webview when clicking on a link, and not when opening a new page for the
         // first time using loadUrl().
@@ -197,10 +243,17 @@ class SystemWebView(context: Context, attrs: AttributeSet) : NestedWebView(conte
             val additionalHeaders = HashMap<String, String>()
             additionalHeaders["X-Requested-With"] = ""
 
-            super.loadUrl(url, additionalHeaders)
+            // Make sure we do not delete data of this page if an erase is still running.
+            EraseOrchestrator.runAfterPendingErase {
+                // The erase might have been started by closing this tab.
+                if (!isDestroyed) {
+                    super.loadUrl(url, additionalHeaders)
+                    client.notifyCurrentURL(url)
+                }
+            }
+        } else {
+            client.notifyCurrentURL(url)
         }
-
-        client.notifyCurrentURL(url)
     }
 
     override fun exitFullscreen() {}
@@ -210,6 +263,7 @@ class SystemWebView(context: Context, attrs: AttributeSet) : NestedWebView(conte
     }
 
     override fun destroy() {
+        isDestroyed = true
         super.destroy()
 
         // WebView might save data to disk once it gets destroyed. In this case our cleanup call
@@ -218,24 +272,32 @@ class SystemWebView(context: Context, attrs: AttributeSet) : NestedWebView(conte
     }
 
     override fun cleanup() {
-        clearFormData()
-        clearHistory()
-        clearMatches()
-        clearSslPreferences()
-        clearCache(true)
-
-        // We don't care about the callback - we just want to make sure cookies are gone
-        CookieManager.getInstance().removeAllCookies(null)
+        val erase = EraseOrchestrator.begin()
+
+        erase.measure(EraseOrchestrator.STEP_WEBVIEW_DATA) {
+            clearFormData()
+            clearHistory()
+            clearMatches()
+            clearSslPreferences()
+            clearCache(true)
+
+            val webViewDatabase = WebViewDatabase.getInstance(context)
+            // It isn't entirely clear how this differs from WebView.clearFormData()
+            @Suppress("DEPRECATION")
+            webViewDatabase.clearFormData()
+            webViewDatabase.clearHttpAuthUsernamePassword()
+        }
 
-        WebStorage.getInstance().deleteAllData()
+        erase.measure(EraseOrchestrator.STEP_COOKIES) {
+            // We don't care about the callback - we just want to make sure cookies are gone
+            CookieManager.getInstance().removeAllCookies(null)
+        }
 
-        val webViewDatabase = WebViewDatabase.getInstance(context)
-        // It isn't entirely clear how this differs from WebView.clearFormData()
-        @Suppress("DEPRECATION")
-        webViewDatabase.clearFormData()
-        webViewDatabase.clearHttpAuthUsernamePassword()
+        erase.measure(EraseOrchestrator.STEP_WEB_STORAGE) {
+            WebStorage.getInstance().deleteAllData()
+        }
 
-        deleteContentFromKnownLocations(context)
+        EraseOrchestrator.deleteContentFromKnownLocations(context, erase)
     }
 
     override fun autofill(values: SparseArray<AutofillValue>) {
@@ -247,6 +309,8 @@ class SystemWebView(context: Context, attrs: AttributeSet) : NestedWebView(conte
     private fun createWebChromeClient(): WebChromeClient {
         return object : WebChromeClient() {
             override fun onProgressChanged(view: WebView, newProgress: Int) {
+                client.notifyProgress()
+
                 if (callback != null) {
                     // This is the earliest point where we might be able to confirm a redirected
                     // URL: we don't necessarily get a shouldInterceptRequest() after a redirect,
@@ -307,15 +371,7 @@ class SystemWebView(context: Context, attrs: AttributeSet) : NestedWebView(conte
         private const val TAG = "WebkitView"
 
         fun deleteContentFromKnownLocations(context: Context) {
-            ThreadUtils.postToBackgroundThread(Runnable {
-                // We call all methods on WebView to delete data. But some traces still remain
-                // on disk. This will wipe the whole webview directory.
-                FileUtils.deleteWebViewDirectory(context)
-
-                // WebView stores some files in the cache directory. We do not use it ourselves
-                // so let's truncate it.
-                FileUtils.truncateCacheDirectory(context)
-            })
+            EraseOrchestrator.deleteContentFromKnownLocations(context)
         }
     }
 }
@@ -4,10 +4,11 @@
  * file, You can obtain one at http://mozilla.org/MPL/2.0/. */
 package org.mozilla.focus.webview;
 
+import android.annotation.TargetApi;
 import android.content.Context;
 import android.graphics.Bitmap;
 import android.net.Uri;
-import android.os.AsyncTask;
+import android.os.Build;
 import android.support.annotation.WorkerThread;
 import android.webkit.HttpAuthHandler;
 import android.webkit.WebResourceRequest;
@@ -16,6 +17,10 @@ import android.webkit.WebView;
 import android.webkit.WebViewClient;
 
 import org.mozilla.focus.R;
+import org.mozilla.focus.memory.MemoryPressureManager;
+import org.mozilla.focus.startup.StartupTrace;
+import org.mozilla.focus.telemetry.NavigationTimings;
+import org.mozilla.focus.utils.TaskScheduler;
 import org.mozilla.focus.web.IWebView;
 import org.mozilla.focus.webview.matcher.UrlMatcher;
 
@@ -27,20 +32,31 @@ public class TrackingProtectionWebViewClient extends WebViewClient {
         // but we don't have any way of being certain - and there's no real harm since we're not
         // blocking anything else.)
         if (MATCHER == null) {
-            new AsyncTask<Void, Void, Void>() {
+            TaskScheduler.execute(TaskScheduler.Lane.USER_BLOCKING, new Runnable() {
                 @Override
-                protected Void doInBackground(Void... voids) {
+                public void run() {
                     // We don't need the result here - we just want to trigger loading
                     getMatcher(context);
-                    return null;
                 }
-            }.execute();
+            });
         }
     }
 
     @WorkerThread private static synchronized UrlMatcher getMatcher(final Context context) {
         if (MATCHER == null) {
-            MATCHER = UrlMatcher.loadMatcher(context, R.raw.blocklist, new int[] { R.raw.google_mapping }, R.raw.entitylist);
+            final long traceStart = StartupTrace.begin();
+            final UrlMatcher matcher = UrlMatcher.loadMatcher(context, R.raw.blocklist, new int[] { R.raw.google_mapping }, R.raw.entitylist);
+            StartupTrace.end("matcher_preload", traceStart);
+
+            MemoryPressureManager.register("matcher_verdicts", MemoryPressureManager.Priority.LOW,
+                    new MemoryPressureManager.Trimmable() {
+                        @Override
+                        public int trim() {
+                            return matcher.clearVerdictCaches();
+                        }
+                    });
+
+            MATCHER = matcher;
         }
         return MATCHER;
     }
@@ -48,6 +64,7 @@ public class TrackingProtectionWebViewClient extends WebViewClient {
     private boolean blockingEnabled;
     /* package */ String currentPageURL;
     protected IWebView.Callback callback;
+    protected final NavigationTimings.Recorder navigationTimings = new NavigationTimings.Recorder();
 
     /* package */ TrackingProtectionWebViewClient(final Context context) {
         // Hopefully we have loaded background data already. We call triggerPreload() to try to trigger
@@ -72,6 +89,7 @@ public class TrackingProtectionWebViewClient extends WebViewClient {
     @Override
     public WebResourceResponse shouldInterceptRequest(final WebView view, final WebResourceRequest request) {
         if (!blockingEnabled) {
+            navigationTimings.onInterceptRequest(false, 0);
             return super.shouldInterceptRequest(view, request);
         }
 
@@ -88,6 +106,7 @@ public class TrackingProtectionWebViewClient extends WebViewClient {
             // but not in all cases (malformed market: URIs, such as market:://... will still end up here).
             // (Note: data: URIs are automatically handled by WebView, and won't end up here either.)
             // file:// URIs are disabled separately by setting WebSettings.setAllowFileAccess()
+            navigationTimings.onInterceptRequest(true, 0);
             return new WebResourceResponse(null, null, null);
         }
 
@@ -97,17 +116,23 @@ public class TrackingProtectionWebViewClient extends WebViewClient {
         // favicon loading that's performed.
         final String path = resourceUri.getPath();
         if (path != null && path.endsWith("/favicon.ico")) {
+            navigationTimings.onInterceptRequest(true, 0);
             return new WebResourceResponse(null, null, null);
         }
 
+        final long matcherStart = System.nanoTime();
         final UrlMatcher matcher = getMatcher(view.getContext());
 
         // Don't block the main frame from being loaded. This also protects against cases where we
         // open a link that redirects to another app (e.g. to the play store).
-        if ((!request.isForMainFrame()) &&
+        // Bandaid for issue #26: currentPageUrl can still be null, and needs to be investigated further.
+        final boolean blocked = (!request.isForMainFrame()) &&
                 currentPageURL != null &&
-                matcher.matches(resourceUri, Uri.parse(currentPageURL))) {
-                // Bandaid for issue #26: currentPageUrl can still be null, and needs to be investigated further.
+                matcher.matches(resourceUri, Uri.parse(currentPageURL));
+
+        navigationTimings.onInterceptRequest(blocked, System.nanoTime() - matcherStart);
+
+        if (blocked) {
             if (callback != null) {
                 callback.countBlockedTracker();
             }
@@ -128,8 +153,31 @@ public class TrackingProtectionWebViewClient extends WebViewClient {
         currentPageURL = url;
     }
 
+    /**
+     * Notify that a new URL is about to be loaded, to measure the timing of the navigation.
+     */
+    public void notifyNavigationStart() {
+        navigationTimings.begin();
+    }
+
+    public void notifyProgress() {
+        navigationTimings.onProgress();
+    }
+
+    @TargetApi(Build.VERSION_CODES.N)
+    @Override
+    public boolean shouldOverrideUrlLoading(WebView view, WebResourceRequest request) {
+        // This is only called on API 24+: It's the only version that lets us ignore iframe navigations.
+        if (request.isForMainFrame()) {
+            navigationTimings.onOverrideUrlLoading();
+        }
+        return super.shouldOverrideUrlLoading(view, request);
+    }
+
     @Override
     public void onPageStarted(WebView view, String url, Bitmap favicon) {
+        navigationTimings.onPageStarted();
+
         if (callback != null) {
             callback.resetBlockedTrackers();
         }
@@ -139,6 +187,13 @@ public class TrackingProtectionWebViewClient extends WebViewClient {
         super.onPageStarted(view, url, favicon);
     }
 
+    @Override
+    public void onPageFinished(WebView view, String url) {
+        navigationTimings.onPageFinished();
+
+        super.onPageFinished(view, url);
+    }
+
     @Override
     public void onReceivedHttpAuthRequest(WebView view, final HttpAuthHandler handler, String host, String realm) {
         final IWebView.HttpAuthCallback httpAuthCallback = new IWebView.HttpAuthCallback() {
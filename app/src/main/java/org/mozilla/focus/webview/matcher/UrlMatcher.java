@@ -65,6 +65,8 @@ public class UrlMatcher implements  SharedPreferences.OnSharedPreferenceChangeLi
     private final HashSet<String> previouslyMatched = new HashSet<>();
     // A cahced list of previously approved URLs. This MUST be cleared whenever items are added to enabledCategories.
     private final HashSet<String> previouslyUnmatched = new HashSet<>();
+    // Guards both caches: They are used on WebView's IO threads and cleared from the main thread.
+    private final Object verdictCacheLock = new Object();
 
     private boolean blockWebfonts = true;
 
@@ -176,6 +178,20 @@ public class UrlMatcher implements  SharedPreferences.OnSharedPreferenceChangeLi
         enabledCategories.add("default");
     }
 
+    /**
+     * Clear the cached verdicts of previous matches. They will be recomputed on demand.
+     *
+     * @return The number of removed cache entries.
+     */
+    public int clearVerdictCaches() {
+        synchronized (verdictCacheLock) {
+            final int removed = previouslyMatched.size() + previouslyUnmatched.size();
+            previouslyMatched.clear();
+            previouslyUnmatched.clear();
+            return removed;
+        }
+    }
+
     public Set<String> getCategories() {
         return categories.keySet();
     }
@@ -196,7 +212,9 @@ public class UrlMatcher implements  SharedPreferences.OnSharedPreferenceChangeLi
                 return;
             } else {
                 enabledCategories.add(category);
-                previouslyUnmatched.clear();
+                synchronized (verdictCacheLock) {
+                    previouslyUnmatched.clear();
+                }
             }
         } else {
             if (!enabledCategories.contains(category)) {
@@ -204,7 +222,9 @@ public class UrlMatcher implements  SharedPreferences.OnSharedPreferenceChangeLi
                 return;
             } else {
                 enabledCategories.remove(category);
-                previouslyMatched.clear();
+                synchronized (verdictCacheLock) {
+                    previouslyMatched.clear();
+                }
             }
 
         }
@@ -230,8 +250,10 @@ public class UrlMatcher implements  SharedPreferences.OnSharedPreferenceChangeLi
         final String resourceURLString = resourceURI.toString();
 
         // Cached whitelisted items can be permitted now (but blacklisted needs to wait for the override / entity list)
-        if (previouslyUnmatched.contains(resourceURLString)) {
-            return false;
+        synchronized (verdictCacheLock) {
+            if (previouslyUnmatched.contains(resourceURLString)) {
+                return false;
+            }
         }
 
         if (entityList != null &&
@@ -248,8 +270,10 @@ public class UrlMatcher implements  SharedPreferences.OnSharedPreferenceChangeLi
             return false;
         }
 
-        if (previouslyMatched.contains(resourceURLString)) {
-            return true;
+        synchronized (verdictCacheLock) {
+            if (previouslyMatched.contains(resourceURLString)) {
+                return true;
+            }
         }
 
         final FocusString revhost = FocusString.create(resourceHost).reverse();
@@ -257,12 +281,16 @@ public class UrlMatcher implements  SharedPreferences.OnSharedPreferenceChangeLi
         for (final Map.Entry<String, Trie> category : categories.entrySet()) {
             if (enabledCategories.contains(category.getKey()) &&
                     category.getValue().findNode(revhost) != null) {
-                previouslyMatched.add(resourceURLString);
+                synchronized (verdictCacheLock) {
+                    previouslyMatched.add(resourceURLString);
+                }
                 return true;
             }
         }
 
-        previouslyUnmatched.add(resourceURLString);
+        synchronized (verdictCacheLock) {
+            previouslyUnmatched.add(resourceURLString);
+        }
         return false;
     }
 }
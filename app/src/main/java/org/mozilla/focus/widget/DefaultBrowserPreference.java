@@ -15,6 +15,7 @@ import android.widget.Switch;
 
 import org.mozilla.focus.R;
 import org.mozilla.focus.utils.Browsers;
+import org.mozilla.focus.utils.BrowsersCache;
 import org.mozilla.focus.utils.SupportUtils;
 
 public class DefaultBrowserPreference extends Preference {
@@ -52,7 +53,7 @@ public class DefaultBrowserPreference extends Preference {
 
     public void update() {
         if (switchView != null) {
-            final Browsers browsers = new Browsers(getContext(), Browsers.TRADITIONAL_BROWSER_URL);
+            final Browsers browsers = BrowsersCache.get(getContext(), Browsers.TRADITIONAL_BROWSER_URL);
             switchView.setChecked(browsers.isDefaultBrowser(getContext()));
         }
     }
@@ -60,7 +61,7 @@ public class DefaultBrowserPreference extends Preference {
     @Override
     public void onClick() {
         final Context context = getContext();
-        final Browsers browsers = new Browsers(getContext(), Browsers.TRADITIONAL_BROWSER_URL);
+        final Browsers browsers = BrowsersCache.get(getContext(), Browsers.TRADITIONAL_BROWSER_URL);
 
         if (!browsers.hasDefaultBrowser(context)) {
 
@@ -8,7 +8,6 @@ import android.content.Context;
 import android.graphics.Bitmap;
 import android.graphics.Canvas;
 import android.graphics.Paint;
-import android.os.AsyncTask;
 import android.support.v7.preference.ListPreference;
 import android.text.TextUtils;
 import android.util.AttributeSet;
@@ -17,6 +16,7 @@ import android.util.Log;
 import org.mozilla.focus.R;
 import org.mozilla.focus.locale.LocaleManager;
 import org.mozilla.focus.locale.Locales;
+import org.mozilla.focus.utils.TaskScheduler;
 
 import java.lang.ref.WeakReference;
 import java.nio.ByteBuffer;
@@ -30,6 +30,7 @@ import java.util.Map;
 import java.util.Set;
 
 import kotlin.Pair;
+import mozilla.components.support.utils.ThreadUtils;
 
 public class LocaleListPreference extends ListPreference {
     private static final String LOG_TAG = "GeckoLocaleList";
@@ -173,14 +174,14 @@ public class LocaleListPreference extends ListPreference {
         String defaultLanguage = getContext().getString(R.string.preference_language_systemdefault);
         this.buildLocaleListTask = new BuildLocaleListTask(this, defaultLanguage,
                 characterValidator, LocaleManager.getPackagedLocaleTags(getContext()));
-        this.buildLocaleListTask.execute();
+        TaskScheduler.execute(TaskScheduler.Lane.USER_BLOCKING, this.buildLocaleListTask);
     }
 
     @Override
     protected void onPrepareForRemoval() {
         super.onPrepareForRemoval();
         if (buildLocaleListTask != null) {
-            buildLocaleListTask.cancel(true);
+            buildLocaleListTask.cancel();
         }
     }
 
@@ -342,12 +343,13 @@ public class LocaleListPreference extends ListPreference {
         return new LocaleDescriptor(value).getDisplayName();
     }
 
-    static final class BuildLocaleListTask extends AsyncTask<Void, Void, Pair<String[], String[]>> {
+    static final class BuildLocaleListTask implements Runnable {
 
         private final WeakReference<ListPreference> weakListPreference;
         private final CharacterValidator characterValidator;
         private final Collection<String> shippingLocales;
         private final String systemDefaultLanguage;
+        private volatile boolean cancelled;
 
         BuildLocaleListTask(ListPreference listPreference, String systemDefaultLanguage,
                             CharacterValidator characterValidator, Collection<String> shippingLocales) {
@@ -357,8 +359,27 @@ public class LocaleListPreference extends ListPreference {
             this.weakListPreference = new WeakReference<>(listPreference);
         }
 
+        void cancel() {
+            cancelled = true;
+        }
+
         @Override
-        protected Pair<String[], String[]> doInBackground(Void... voids) {
+        public void run() {
+            if (cancelled) {
+                return;
+            }
+
+            final Pair<String[], String[]> pair = buildLocaleList();
+
+            ThreadUtils.INSTANCE.postToMainThread(new Runnable() {
+                @Override
+                public void run() {
+                    onLocaleListBuilt(pair);
+                }
+            });
+        }
+
+        private Pair<String[], String[]> buildLocaleList() {
             final LocaleDescriptor[] descriptors = getUsableLocales();
             final int count = descriptors.length;
 
@@ -403,9 +424,8 @@ public class LocaleListPreference extends ListPreference {
             return descriptors;
         }
 
-        @Override
-        protected void onPostExecute(Pair<String[], String[]> pair) {
-            if (isCancelled()) {
+        private void onLocaleListBuilt(Pair<String[], String[]> pair) {
+            if (cancelled) {
                 return;
             }
 
@@ -0,0 +1,124 @@
+/* This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/. */
+
+package org.mozilla.focus.autocomplete
+
+import mozilla.components.browser.domains.CustomDomains
+import org.junit.Assert.assertEquals
+import org.junit.Assert.assertFalse
+import org.junit.Assert.assertTrue
+import org.junit.Before
+import org.junit.Test
+import org.junit.runner.RunWith
+import org.robolectric.RobolectricTestRunner
+import org.robolectric.RuntimeEnvironment
+import java.io.File
+
+@RunWith(RobolectricTestRunner::class)
+class CustomDomainStoreTest {
+    private val context = RuntimeEnvironment.application
+
+    @Before
+    fun setUp() {
+        CustomDomainStore.reset()
+        File(context.filesDir, "custom_domains.log").delete()
+    }
+
+    @Test
+    fun testChangesAreReplayed() {
+        CustomDomainStore.add(context, "mozilla.org")
+        CustomDomainStore.add(context, "example.com")
+        CustomDomainStore.add(context, "firefox.com")
+        CustomDomainStore.swap(context, 0, 2)
+        CustomDomainStore.remove(context, listOf("example.com"))
+
+        val expected = listOf("firefox.com", "mozilla.org")
+        assertEquals(expected, CustomDomainStore.load(context))
+
+        // Read the log again, like after a restart.
+        CustomDomainStore.reset()
+        assertEquals(expected, CustomDomainStore.load(context))
+    }
+
+    @Test
+    fun testChangesAfterTruncatedRecordAreKept() {
+        CustomDomainStore.add(context, "mozilla.org")
+        CustomDomainStore.add(context, "example.com")
+        CustomDomainStore.add(context, "firefox.com")
+
+        // The process died while writing the last record.
+        val file = File(context.filesDir, "custom_domains.log")
+        val bytes = file.readBytes()
+        file.writeBytes(bytes.copyOf(bytes.size - 3))
+
+        CustomDomainStore.reset()
+        assertEquals(listOf("mozilla.org", "example.com"), CustomDomainStore.load(context))
+
+        CustomDomainStore.add(context, "wikipedia.org")
+
+        CustomDomainStore.reset()
+        assertEquals(listOf("mozilla.org", "example.com", "wikipedia.org"), CustomDomainStore.load(context))
+    }
+
+    @Test
+    fun testDuplicatesAreRejected() {
+        assertTrue(CustomDomainStore.add(context, "mozilla.org"))
+        assertFalse(CustomDomainStore.add(context, "mozilla.org"))
+
+        assertTrue(CustomDomainStore.contains(context, "mozilla.org"))
+        assertFalse(CustomDomainStore.contains(context, "example.com"))
+        assertEquals(1, CustomDomainStore.load(context).size)
+    }
+
+    @Test
+    fun testLogIsCompacted() {
+        CustomDomainStore.add(context, "mozilla.org")
+        CustomDomainStore.add(context, "example.com")
+
+        repeat(200) { CustomDomainStore.swap(context, 0, 1) }
+
+        val file = File(context.filesDir, "custom_domains.log")
+        // 200 swap records would be 1800 bytes.
+        assertTrue(file.length() < 1000)
+
+        CustomDomainStore.reset()
+        assertEquals(listOf("mozilla.org", "example.com"), CustomDomainStore.load(context))
+    }
+
+    @Test
+    fun testEveryRemovedDomainCountsForCompaction() {
+        val domains = (0 until 40).map { "domain$it.com" }
+        domains.forEach { CustomDomainStore.add(context, it) }
+        CustomDomainStore.remove(context, domains.drop(1))
+
+        // 40 additions and 39 removals: The next change rewrites the log with the remaining domain.
+        CustomDomainStore.swap(context, 0, 0)
+
+        val file = File(context.filesDir, "custom_domains.log")
+        assertEquals((1 + 2 + "domain0.com".length).toLong(), file.length())
+    }
+
+    @Test
+    fun testDomainsAreMigratedFromSharedPreferences() {
+        CustomDomains.save(context, listOf("mozilla.org", "example.com"))
+
+        assertEquals(listOf("mozilla.org", "example.com"), CustomDomainStore.load(context))
+
+        // The old list is deleted once the log has been written.
+        assertEquals(emptyList<String>(), CustomDomains.load(context))
+        CustomDomainStore.reset()
+        assertEquals(listOf("mozilla.org", "example.com"), CustomDomainStore.load(context))
+    }
+
+    @Test
+    fun testClear() {
+        CustomDomainStore.add(context, "mozilla.org")
+
+        CustomDomainStore.clear(context)
+
+        assertEquals(emptyList<String>(), CustomDomainStore.load(context))
+        CustomDomainStore.reset()
+        assertEquals(emptyList<String>(), CustomDomainStore.load(context))
+    }
+}
@@ -0,0 +1,118 @@
+/* This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/. */
+
+package org.mozilla.focus.autocomplete
+
+import org.junit.Assert.assertEquals
+import org.junit.Assert.assertNull
+import org.junit.Assert.assertTrue
+import org.junit.Ignore
+import org.junit.Test
+import java.util.Locale
+import java.util.Random
+
+class DomainIndexTest {
+    private fun DomainIndex.find(text: String): DomainMatch? {
+        val query = text.toLowerCase(Locale.US)
+        val offset = when {
+            query.startsWith("https://") -> 8
+            query.startsWith("http://") -> 7
+            else -> 0
+        }
+        return find(text, query, offset)
+    }
+
+    @Test
+    fun testFirstDomainInListOrderWins() {
+        val index = DomainIndex("custom").apply {
+            set(listOf("mozilla.org", "mozilla.com", "example.com"))
+        }
+
+        val match = index.find("moz")!!
+        assertEquals("mozilla.org", match.text)
+        assertEquals("http://mozilla.org", match.url)
+        assertEquals("custom", match.source)
+        assertEquals(3, match.totalItems)
+
+        assertEquals("mozilla.com", index.find("mozilla.c")!!.text)
+        assertNull(index.find("mozilla.net"))
+    }
+
+    @Test
+    fun testPrefixVariants() {
+        val index = DomainIndex("custom").apply {
+            set(listOf("https://www.example.com", "mozilla.org"))
+        }
+
+        assertEquals("www.mozilla.org", index.find("www.moz")!!.text)
+        assertEquals("http://mozilla.org", index.find("http://moz")!!.text)
+        assertEquals("https://www.mozilla.org", index.find("https://www.moz")!!.text)
+        assertEquals("https://www.example.com", index.find("exa")!!.url)
+
+        // Everything completes "www.", the first domain wins.
+        assertEquals("www.example.com", index.find("ww")!!.text)
+    }
+
+    @Test
+    fun testTypedCaseIsKept() {
+        val index = DomainIndex("custom").apply { set(listOf("mozilla.org")) }
+
+        assertEquals("MOZilla.org", index.find("MOZ")!!.text)
+    }
+
+    @Test
+    fun testIncrementalUpdates() {
+        val index = DomainIndex("custom").apply { set(listOf("mozilla.org")) }
+
+        index.add("mozilla.com")
+        index.add("mozilla.com")
+        assertEquals(2, index.size)
+        assertEquals("mozilla.org", index.find("moz")!!.text)
+
+        index.swap(0, 1)
+        assertEquals("mozilla.com", index.find("moz")!!.text)
+
+        index.remove(listOf("mozilla.com"))
+        assertEquals("mozilla.org", index.find("moz")!!.text)
+
+        index.remove(listOf("mozilla.org"))
+        assertNull(index.find("moz"))
+    }
+
+    @Test
+    fun testShortPrefixMatchesFirstInListOrder() {
+        val domains = (0 until 1000).map { "domain$it.example${it % 7}.com" }.shuffled(Random(42))
+        val index = DomainIndex("custom").apply { set(domains) }
+
+        fun expected(query: String) = domains.firstOrNull { it.startsWith(query) }
+
+        listOf("d", "domain1", "domain99", "domain5").forEach { query ->
+            assertEquals(expected(query), index.find(query)!!.text)
+        }
+
+        val last = domains.indexOf(expected("domain1"))
+        index.swap(0, last)
+        assertEquals(domains[last], index.find("d")!!.text)
+        assertEquals(domains[last], index.find("domain1")!!.text)
+    }
+
+    @Test
+    @Ignore("Benchmark: run manually")
+    fun benchmarkTenThousandCustomDomains() {
+        val domains = (0 until 10000).map { "domain$it.example${it % 100}.com" }
+        val queries = (0 until 1000).map { "domain${it * 7}" } + listOf("d", "do", "www.dom", "http://domain9")
+
+        val index = DomainIndex("custom").apply { set(domains) }
+
+        // Warm up.
+        queries.forEach { index.find(it) }
+
+        val start = System.nanoTime()
+        queries.forEach { assertTrue(index.find(it) != null) }
+        val nanosPerLookup = (System.nanoTime() - start) / queries.size
+
+        // A keystroke has 16 ms.
+        assertTrue(nanosPerLookup < 1_000_000)
+    }
+}
@@ -5,13 +5,19 @@
 
 package org.mozilla.focus.locale;
 
+import android.content.Context;
+import android.content.res.Resources;
+
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
 
 import java.util.Locale;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
 
 @RunWith(RobolectricTestRunner.class)
 public class LocalesTest {
@@ -51,4 +57,23 @@ public class LocalesTest {
         assertEquals("en", Locales.getLanguage(locale));
         assertEquals("en", Locales.getLanguageTag(locale));
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testLocalizedResourcesAreCached() {
+        final Context context = RuntimeEnvironment.application;
+        final LocaleManager localeManager = LocaleManager.getInstance();
+
+        localeManager.setSelectedLocale(context, "de");
+        // Resources of the app still use the previous locale.
+        localeManager.updateConfiguration(context, Locale.US);
+
+        final Resources resources = Locales.getLocalizedResources(context);
+        assertNotSame(context.getResources(), resources);
+        assertSame(resources, Locales.getLocalizedResources(context));
+
+        assertEquals(1, Locales.clearLocalizedResourcesCache());
+        assertNotSame(resources, Locales.getLocalizedResources(context));
+
+        localeManager.resetToSystemLocale(context);
+    }
+}
@@ -0,0 +1,94 @@
+/* This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/. */
+
+package org.mozilla.focus.memory
+
+import android.app.Application
+import android.content.ComponentCallbacks2
+import org.junit.After
+import org.junit.Assert.assertEquals
+import org.junit.Before
+import org.junit.Test
+import org.junit.runner.RunWith
+import org.mozilla.focus.memory.MemoryPressureManager.Priority
+import org.robolectric.RobolectricTestRunner
+import org.robolectric.annotation.Config
+
+@RunWith(RobolectricTestRunner::class)
+// The caches of FocusApplication would be trimmed, too.
+@Config(application = Application::class)
+class MemoryPressureManagerTest {
+    // The names of the trimmed test caches, in the order they were trimmed.
+    private val trimmed = mutableListOf<String>()
+
+    private fun register(name: String, priority: Priority, entries: Int = 1) {
+        MemoryPressureManager.register(name, priority, object : MemoryPressureManager.Trimmable {
+            override fun trim(): Int {
+                trimmed.add(name)
+                return entries
+            }
+        })
+    }
+
+    @Before
+    fun setUp() {
+        // Registered in reverse order: The trim order must not depend on it.
+        register("test_high", Priority.HIGH, 3)
+        register("test_medium", Priority.MEDIUM, 2)
+        register("test_low", Priority.LOW, 1)
+    }
+
+    @After
+    fun tearDown() {
+        listOf("test_high", "test_medium", "test_low").forEach { MemoryPressureManager.unregister(it) }
+    }
+
+    private fun trim(level: Int): List<String> {
+        trimmed.clear()
+        MemoryPressureManager.onTrimMemory(level)
+        return trimmed.toList()
+    }
+
+    @Test
+    fun testHiddenAndBackgroundOnlyTrimLowPriority() {
+        assertEquals(listOf("test_low"), trim(ComponentCallbacks2.TRIM_MEMORY_UI_HIDDEN))
+        assertEquals(listOf("test_low"), trim(ComponentCallbacks2.TRIM_MEMORY_BACKGROUND))
+        assertEquals(listOf("test_low"), trim(ComponentCallbacks2.TRIM_MEMORY_RUNNING_LOW))
+    }
+
+    @Test
+    fun testModerateTrimsLowAndMediumPriority() {
+        assertEquals(listOf("test_low", "test_medium"), trim(ComponentCallbacks2.TRIM_MEMORY_MODERATE))
+        assertEquals(listOf("test_low", "test_medium"), trim(ComponentCallbacks2.TRIM_MEMORY_RUNNING_CRITICAL))
+    }
+
+    @Test
+    fun testCompleteTrimsEverythingCheapestFirst() {
+        assertEquals(listOf("test_low", "test_medium", "test_high"), trim(ComponentCallbacks2.TRIM_MEMORY_COMPLETE))
+    }
+
+    @Test
+    fun testFreedEntriesAreReported() {
+        val freed = MemoryPressureManager.onTrimMemory(ComponentCallbacks2.TRIM_MEMORY_COMPLETE)
+
+        assertEquals(1, freed["test_low"])
+        assertEquals(2, freed["test_medium"])
+        assertEquals(3, freed["test_high"])
+    }
+
+    @Test
+    fun testRegisteringSameNameReplacesEntry() {
+        register("test_low", Priority.HIGH)
+
+        assertEquals(listOf("test_medium"), trim(ComponentCallbacks2.TRIM_MEMORY_MODERATE))
+        assertEquals(listOf("test_medium", "test_high", "test_low"), trim(ComponentCallbacks2.TRIM_MEMORY_COMPLETE))
+    }
+
+    @Test
+    fun testUnregisteredCacheIsNotTrimmed() {
+        MemoryPressureManager.unregister("test_low")
+
+        assertEquals(listOf("test_medium", "test_high"), trim(ComponentCallbacks2.TRIM_MEMORY_COMPLETE))
+    }
+}
@@ -0,0 +1,131 @@
+/* This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/. */
+
+package org.mozilla.focus.search
+
+import android.content.Context
+import kotlinx.coroutines.experimental.runBlocking
+import mozilla.components.browser.search.SearchEngine
+import mozilla.components.browser.search.provider.AssetsSearchEngineProvider
+import mozilla.components.browser.search.provider.SearchEngineProvider
+import mozilla.components.browser.search.provider.localization.LocaleSearchLocalizationProvider
+import org.junit.After
+import org.junit.Assert.assertEquals
+import org.junit.Assert.assertFalse
+import org.junit.Assert.assertTrue
+import org.junit.Before
+import org.junit.Test
+import org.junit.runner.RunWith
+import org.robolectric.RobolectricTestRunner
+import org.robolectric.RuntimeEnvironment
+import java.io.File
+import java.util.Locale
+
+@RunWith(RobolectricTestRunner::class)
+class BundledSearchEngineProviderTest {
+    private val context = RuntimeEnvironment.application
+    private val file = File(context.filesDir, "bundled_search_engines.snapshot")
+    private val defaultLocale = Locale.getDefault()
+
+    /**
+     * Loads the engines from the assets like the app does, counting how often that happens.
+     */
+    private class CountingProvider : SearchEngineProvider {
+        private val assetsProvider = AssetsSearchEngineProvider(
+            LocaleSearchLocalizationProvider(),
+            filters = listOf(BingSearchEngineFilter()),
+            additionalIdentifiers = listOf("ddg"))
+
+        var loads = 0
+
+        // Our version of ktlint enforces the wrong modifier order. We need to update the plugin: #2488
+        /* ktlint-disable modifier-order */
+        override suspend fun loadSearchEngines(context: Context): List<SearchEngine> {
+            loads++
+            return assetsProvider.loadSearchEngines(context)
+        }
+    }
+
+    private val assetsProvider = CountingProvider()
+
+    private fun load(versionCode: Int = 1) = runBlocking {
+        BundledSearchEngineProvider(assetsProvider, versionCode).loadSearchEngines(context).map { it.identifier }
+    }
+
+    @Before
+    fun setUp() {
+        file.delete()
+    }
+
+    @After
+    fun tearDown() {
+        Locale.setDefault(defaultLocale)
+    }
+
+    @Test
+    fun testSnapshotIsUsedOnNextLoad() {
+        val engines = load()
+        assertFalse(engines.isEmpty())
+        assertTrue(file.exists())
+
+        assertEquals(engines, load())
+        assertEquals(1, assetsProvider.loads)
+    }
+
+    @Test
+    fun testSnapshotOfOtherVersionIsIgnored() {
+        val engines = load(versionCode = 1)
+
+        assertEquals(engines, load(versionCode = 2))
+        assertEquals(2, assetsProvider.loads)
+
+        // The snapshot has been replaced with the one of the new version.
+        load(versionCode = 2)
+        assertEquals(2, assetsProvider.loads)
+    }
+
+    @Test
+    fun testSnapshotOfOtherLocaleIsIgnored() {
+        Locale.setDefault(Locale.US)
+        load()
+
+        Locale.setDefault(Locale.GERMANY)
+        load()
+        assertEquals(2, assetsProvider.loads)
+    }
+
+    @Test
+    fun testCorruptSnapshotIsIgnored() {
+        val engines = load()
+
+        file.writeBytes(byteArrayOf(1, 2, 3))
+
+        assertEquals(engines, load())
+        assertEquals(2, assetsProvider.loads)
+    }
+
+    @Test
+    fun testTruncatedSnapshotIsIgnored() {
+        val engines = load()
+
+        val bytes = file.readBytes()
+        file.writeBytes(bytes.copyOf(bytes.size / 2))
+
+        assertEquals(engines, load())
+        assertEquals(2, assetsProvider.loads)
+    }
+
+    @Test
+    fun testHiddenEnginesAreFilteredFromSnapshot() {
+        val engines = load()
+        val hidden = engines.first()
+
+        CustomSearchEngineStore.removeSearchEngines(context, mutableSetOf(hidden))
+
+        assertEquals(engines - hidden, load())
+        assertEquals(1, assetsProvider.loads)
+
+        CustomSearchEngineStore.restoreDefaultSearchEngines(context)
+    }
+}
@@ -0,0 +1,111 @@
+/* This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/. */
+
+package org.mozilla.focus.search
+
+import android.content.Context
+import android.graphics.Bitmap
+import mozilla.components.browser.search.SearchEngine
+import org.junit.Assert.assertArrayEquals
+import org.junit.Assert.assertEquals
+import org.junit.Assert.assertNotNull
+import org.junit.Assert.assertNotSame
+import org.junit.Assert.assertSame
+import org.junit.Before
+import org.junit.Test
+import org.junit.runner.RunWith
+import org.mozilla.focus.utils.BitmapUtils
+import org.robolectric.RobolectricTestRunner
+import org.robolectric.RuntimeEnvironment
+import java.io.File
+
+@RunWith(RobolectricTestRunner::class)
+class CustomSearchEngineStoreTest {
+    private val context = RuntimeEnvironment.application
+    private val prefs = context.getSharedPreferences("custom-search-engines", Context.MODE_PRIVATE)
+
+    @Before
+    fun setUp() {
+        prefs.edit().clear().commit()
+        File(context.filesDir, "search_engine_icons").deleteRecursively()
+        SearchEngineIconStore.clearCache()
+        CustomSearchEngineStore.reset()
+    }
+
+    @Test
+    fun testIconsOfVersion1AreMigrated() {
+        // Version 1 embedded the PNG of the icon in the XML. These are not the bytes of a real PNG:
+        // The migration doesn't decode them.
+        prefs.edit()
+            .putInt("pref_custom_search_version", 1)
+            .putStringSet("pref_custom_search_engines", setOf("testEngine"))
+            .putString("testEngine", engineXml("data:image/png;base64,AAECAw==\n"))
+            .commit()
+
+        val engines = CustomSearchEngineStore.loadCustomSearchEngines(context)
+
+        val iconFile = File(context.filesDir, "search_engine_icons/testEngine.png")
+        assertArrayEquals(byteArrayOf(0, 1, 2, 3), iconFile.readBytes())
+
+        val placeholder = BitmapUtils.getBase64EncodedDataUriFromBitmap(
+            Bitmap.createBitmap(1, 1, Bitmap.Config.ARGB_8888))
+        assertEquals(engineXml(placeholder), prefs.getString("testEngine", null))
+        assertEquals(2, prefs.getInt("pref_custom_search_version", 0))
+
+        assertEquals(1, engines.size)
+        val engine = engines[0]
+        assertEquals("testEngine", engine.identifier)
+        assertEquals("testEngine", engine.name)
+        assertEquals("https://example.com/?q=mozilla", engine.buildSearchUrl("mozilla"))
+
+        val icon = CustomSearchEngineStore.getIcon(context, engine)
+        assertNotNull(icon)
+        assertNotSame(engine.icon, icon)
+    }
+
+    @Test
+    fun testParsedEnginesAreCached() {
+        var parses = 0
+        val parse = { _: Context -> parses++; emptyList<SearchEngine>() }
+
+        val engines = CustomSearchEngineStore.loadCustomSearchEngines(context, parse)
+
+        assertSame(engines, CustomSearchEngineStore.loadCustomSearchEngines(context, parse))
+        assertEquals(1, parses)
+    }
+
+    @Test
+    fun testChangesInvalidateCache() {
+        assertEquals(emptyList<String>(), loadNames())
+
+        CustomSearchEngineStore.addSearchEngine(context, "testEngine", "https://example.com/?q=%s")
+        assertEquals(listOf("testEngine"), loadNames())
+
+        CustomSearchEngineStore.removeSearchEngines(context, mutableSetOf("testEngine"))
+        assertEquals(emptyList<String>(), loadNames())
+    }
+
+    @Test
+    fun testParseStartedBeforeChangeIsNotCached() {
+        // The engine is added while the list is being parsed.
+        val engines = CustomSearchEngineStore.loadCustomSearchEngines(context) {
+            CustomSearchEngineStore.addSearchEngine(it, "testEngine", "https://example.com/?q=%s")
+            emptyList()
+        }
+        assertEquals(emptyList<SearchEngine>(), engines)
+
+        assertEquals(listOf("testEngine"), loadNames())
+    }
+
+    private fun loadNames() = CustomSearchEngineStore.loadCustomSearchEngines(context).map { it.name }
+
+    private fun engineXml(icon: String) =
+        "<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"no\"?>" +
+            "<OpenSearchDescription xmlns=\"http://a9.com/-/spec/opensearch/1.1/\">" +
+            "<ShortName>testEngine</ShortName>" +
+            "<Image height=\"16\" width=\"16\">$icon</Image>" +
+            "<Description>testEngine</Description>" +
+            "<Url template=\"https://example.com/?q={searchTerms}\" type=\"text/html\"/>" +
+            "</OpenSearchDescription>"
+}
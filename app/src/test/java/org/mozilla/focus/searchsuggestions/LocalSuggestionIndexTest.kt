@@ -0,0 +1,66 @@
+/* This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/. */
+
+package org.mozilla.focus.searchsuggestions
+
+import org.junit.Assert.assertEquals
+import org.junit.Test
+
+class LocalSuggestionIndexTest {
+    private val index = LocalSuggestionIndex().apply {
+        set(listOf(
+            listOf("https://www.mozilla.org", "example.com"),
+            listOf("Wikipedia", "Google"),
+            listOf("google.com", "wikipedia.org", "mozilla.org", "wikia.com")
+        ))
+    }
+
+    private fun find(query: String, limit: Int = 5) = index.find(query, limit).map { it.text }
+
+    @Test
+    fun testMatchesAreRankedBySourceAndPopularity() {
+        assertEquals(listOf("Wikipedia", "wikipedia.org", "wikia.com"), find("wiki"))
+        assertEquals(listOf("Wikipedia", "wikipedia.org"), find("wiki", limit = 2))
+        assertEquals(listOf("Google", "google.com"), find("Goo"))
+    }
+
+    @Test
+    fun testExactMatchComesFirst() {
+        val index = LocalSuggestionIndex().apply {
+            set(listOf(listOf("mozilla.org/firefox", "mozilla.org")))
+        }
+
+        assertEquals(listOf("mozilla.org", "mozilla.org/firefox"), index.find("mozilla.org", 5).map { it.text })
+    }
+
+    @Test
+    fun testSchemeAndWwwAreIgnored() {
+        // The custom domain wins over the same shipped domain.
+        assertEquals(listOf("https://www.mozilla.org"), find("moz"))
+        assertEquals(listOf("https://www.mozilla.org"), find("http://www.mozil"))
+        assertEquals(listOf("example.com"), find("www.exa"))
+    }
+
+    @Test
+    fun testHighlightCoversTheTypedPrefix() {
+        assertEquals(Suggestion("https://www.mozilla.org", 15), index.find("moz", 1)[0])
+        assertEquals(Suggestion("Google", 3), index.find("goo", 1)[0])
+    }
+
+    @Test
+    fun testHighlightIsNotLongerThanText() {
+        // "İ" becomes two characters when lower cased.
+        val index = LocalSuggestionIndex().apply { set(listOf(listOf("İ.com"))) }
+
+        assertEquals(Suggestion("İ.com", 5), index.find("İ.com", 1)[0])
+    }
+
+    @Test
+    fun testNothingForBlankOrUnknownQueries() {
+        assertEquals(emptyList<String>(), find(""))
+        assertEquals(emptyList<String>(), find("  "))
+        assertEquals(emptyList<String>(), find("www."))
+        assertEquals(emptyList<String>(), find("firefox"))
+    }
+}
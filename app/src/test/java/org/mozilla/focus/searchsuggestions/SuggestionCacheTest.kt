@@ -0,0 +1,75 @@
+/* This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/. */
+
+package org.mozilla.focus.searchsuggestions
+
+import org.junit.Assert.assertEquals
+import org.junit.Assert.assertNull
+import org.junit.Before
+import org.junit.Test
+
+class SuggestionCacheTest {
+    @Before
+    fun setUp() {
+        SuggestionCache.clear()
+    }
+
+    @Test
+    fun testExactHit() {
+        SuggestionCache.put("google", "wea", listOf("weather", "weasel"))
+
+        assertEquals(listOf("weather", "weasel"), SuggestionCache.get("google", "wea"))
+        assertNull(SuggestionCache.get("duckduckgo", "wea"))
+        assertNull(SuggestionCache.get("google", "weat"))
+    }
+
+    @Test
+    fun testPrefixMatchIsFiltered() {
+        SuggestionCache.put("google", "we", listOf("weather", "web", "Weather today"))
+        SuggestionCache.put("google", "wea", listOf("weather", "Weather today", "weasel"))
+
+        // The longest cached prefix wins.
+        assertEquals(listOf("weather", "Weather today"), SuggestionCache.getPrefixMatch("google", "weat"))
+    }
+
+    @Test
+    fun testPrefixMatchWithoutMatchingSuggestions() {
+        SuggestionCache.put("google", "wea", listOf("weasel"))
+
+        assertNull(SuggestionCache.getPrefixMatch("google", "weat"))
+    }
+
+    @Test
+    fun testClear() {
+        SuggestionCache.put("google", "wea", listOf("weather"))
+
+        SuggestionCache.clear()
+
+        assertNull(SuggestionCache.get("google", "wea"))
+        assertNull(SuggestionCache.getPrefixMatch("google", "weat"))
+    }
+
+    @Test
+    fun testResultFetchedBeforeClearIsNotCached() {
+        val epoch = SuggestionCache.epoch
+
+        SuggestionCache.clear()
+        SuggestionCache.put("google", "wea", listOf("weather"), epoch)
+
+        assertNull(SuggestionCache.get("google", "wea"))
+
+        SuggestionCache.put("google", "wea", listOf("weather"), SuggestionCache.epoch)
+        assertEquals(listOf("weather"), SuggestionCache.get("google", "wea"))
+    }
+
+    @Test
+    fun testLeastRecentlyUsedEntriesAreEvicted() {
+        for (i in 0..100) {
+            SuggestionCache.put("google", "query $i", listOf("suggestion $i"))
+        }
+
+        assertNull(SuggestionCache.get("google", "query 0"))
+        assertEquals(listOf("suggestion 100"), SuggestionCache.get("google", "query 100"))
+    }
+}
@@ -0,0 +1,83 @@
+/* This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/. */
+
+package org.mozilla.focus.startup
+
+import android.os.Looper
+import org.junit.Assert.assertEquals
+import org.junit.Assert.assertFalse
+import org.junit.Assert.assertTrue
+import org.junit.Test
+import org.junit.runner.RunWith
+import org.robolectric.RobolectricTestRunner
+import java.util.Collections
+import java.util.concurrent.Executors
+
+@RunWith(RobolectricTestRunner::class)
+class StartupSchedulerTest {
+    @Test
+    fun testDependenciesRunInOrder() {
+        val order = Collections.synchronizedList(mutableListOf<String>())
+        var engineOnMainThread = false
+
+        StartupScheduler(Executors.newFixedThreadPool(2))
+            .add(StartupScheduler.Task("experiments") { order.add("experiments") })
+            .add(StartupScheduler.Task("engine", dependsOn = listOf("experiments"), mainThread = true) {
+                engineOnMainThread = Looper.myLooper() == Looper.getMainLooper()
+                order.add("engine")
+            })
+            .add(StartupScheduler.Task("telemetry", dependsOn = listOf("engine")) { order.add("telemetry") })
+            .run()
+
+        assertEquals(listOf("experiments", "engine", "telemetry"), order)
+        assertTrue(engineOnMainThread)
+    }
+
+    @Test
+    fun testBackgroundTasksDoNotRunOnMainThread() {
+        var ranOnMainThread = true
+
+        StartupScheduler(Executors.newFixedThreadPool(2))
+            .add(StartupScheduler.Task("background") {
+                ranOnMainThread = Looper.myLooper() == Looper.getMainLooper()
+            })
+            .run()
+
+        assertFalse(ranOnMainThread)
+    }
+
+    @Test
+    fun testTimingsAreRecorded() {
+        val scheduler = StartupScheduler(Executors.newFixedThreadPool(2))
+            .add(StartupScheduler.Task("a", mainThread = true) {})
+            .add(StartupScheduler.Task("b", dependsOn = listOf("a")) {})
+
+        scheduler.run()
+
+        assertEquals(setOf("a", "b"), scheduler.timings.keys)
+    }
+
+    @Test(expected = IllegalStateException::class)
+    fun testCycleIsRejected() {
+        StartupScheduler(Executors.newFixedThreadPool(2))
+            .add(StartupScheduler.Task("a", dependsOn = listOf("b")) {})
+            .add(StartupScheduler.Task("b", dependsOn = listOf("a")) {})
+            .run()
+    }
+
+    @Test(expected = IllegalStateException::class)
+    fun testBlockingTaskCanNotDependOnNonBlockingTask() {
+        StartupScheduler(Executors.newFixedThreadPool(2))
+            .add(StartupScheduler.Task("a", blocking = false) {})
+            .add(StartupScheduler.Task("b", dependsOn = listOf("a")) {})
+            .run()
+    }
+
+    @Test(expected = IllegalStateException::class)
+    fun testFailureOfBlockingTaskIsRethrown() {
+        StartupScheduler(Executors.newFixedThreadPool(2))
+            .add(StartupScheduler.Task("a") { throw IllegalArgumentException() })
+            .run()
+    }
+}
@@ -0,0 +1,56 @@
+/* This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/. */
+
+package org.mozilla.focus.startup
+
+import org.junit.Assert.assertEquals
+import org.junit.Assert.assertFalse
+import org.junit.Assert.assertTrue
+import org.junit.Test
+
+class TraceBufferTest {
+    @Test
+    fun testEventsAreWrittenAsChromeTrace() {
+        val buffer = TraceBuffer()
+        buffer.record("startup:engine", 5_000_000, 2_000_000, 1, "main")
+
+        assertEquals(
+            "{\"traceEvents\":[" +
+                "{\"name\":\"thread_name\",\"ph\":\"M\",\"pid\":42,\"tid\":1,\"args\":{\"name\":\"main\"}}," +
+                "{\"name\":\"startup:engine\",\"ph\":\"X\",\"pid\":42,\"tid\":1,\"ts\":5000,\"dur\":2000}" +
+                "]}",
+            buffer.toChromeTraceJson(42))
+    }
+
+    @Test
+    fun testOldestEventsAreOverwritten() {
+        val buffer = TraceBuffer(capacity = 2)
+        buffer.record("a", 0, 0, 1, "main")
+        buffer.record("b", 0, 0, 1, "main")
+        buffer.record("c", 0, 0, 1, "main")
+
+        val json = buffer.toChromeTraceJson(1)
+
+        assertEquals(2, buffer.size)
+        assertFalse(json.contains("\"a\""))
+        assertTrue(json.indexOf("\"b\"") < json.indexOf("\"c\""))
+    }
+
+    @Test
+    fun testNamesAreEscaped() {
+        val buffer = TraceBuffer()
+        buffer.record("say \"hi\"\n", 0, 0, 1, "main")
+
+        assertTrue(buffer.toChromeTraceJson(1).contains("\"say \\\"hi\\\"\\u000a\""))
+    }
+
+    @Test
+    fun testEmptyBuffer() {
+        val buffer = TraceBuffer()
+        buffer.record("a", 0, 0, 1, "main")
+        buffer.clear()
+
+        assertEquals("{\"traceEvents\":[]}", buffer.toChromeTraceJson(1))
+    }
+}
@@ -9,31 +9,103 @@ import org.junit.runner.RunWith
 import org.robolectric.RobolectricTestRunner
 import org.junit.Assert.assertEquals
 import org.junit.Assert.assertTrue
+import java.util.Random
 
 @RunWith(RobolectricTestRunner::class)
 class HistogramTest {
 
     @Test
     fun testAddLoadToHistogram() {
+        TelemetryWrapper.histogram.clear()
+        TelemetryWrapper.uniqueDomains.clear()
+        TelemetryWrapper.numUri = 0
+
         TelemetryWrapper.addLoadToHistogram("https://www.mozilla.org", 99L)
         TelemetryWrapper.addLoadToHistogram("https://www.mozilla.org/en-US/MPL/", 199L)
 
-        val desiredHistogram = IntArray(200)
-        desiredHistogram[0] = 1
-        desiredHistogram[1] = 1
-        val desiredNumUri = 2
-        val desiredDomainMap = HashSet<String>()
-        desiredDomainMap.add("mozilla.org")
-
-        val actualHistogram = TelemetryWrapper.histogram
-        val actualNumUri = TelemetryWrapper.numUri
-        val actualDomainMap = TelemetryWrapper.domainMap
-
-        assertTrue(actualHistogram.contentEquals(desiredHistogram))
-        assertEquals(actualHistogram[0], desiredHistogram[0])
-        assertEquals(actualHistogram[1], desiredHistogram[1])
-        assertEquals(desiredNumUri, actualNumUri)
-        assertEquals(actualDomainMap, desiredDomainMap)
-        assertEquals(actualDomainMap.size, desiredDomainMap.size)
+        val buckets = mutableMapOf<Long, Int>()
+        TelemetryWrapper.histogram.forEachBucket { lowerBoundMs, count -> buckets[lowerBoundMs] = count }
+
+        assertEquals(mapOf(98L to 1, 196L to 1), buckets)
+        assertEquals(2, TelemetryWrapper.histogram.count)
+        assertEquals(2, TelemetryWrapper.numUri)
+        assertEquals(1L, TelemetryWrapper.uniqueDomains.estimate())
+    }
+
+    @Test
+    fun testBucketsCoverRangeWithoutGaps() {
+        var expectedLowerBound = 0L
+        for (index in 0 until LoadTimeHistogram.BUCKET_COUNT) {
+            val lowerBound = LoadTimeHistogram.bucketLowerBound(index)
+            assertEquals(expectedLowerBound, lowerBound)
+            assertEquals(index, LoadTimeHistogram.bucketIndex(lowerBound))
+
+            val nextLowerBound = if (index + 1 < LoadTimeHistogram.BUCKET_COUNT) {
+                LoadTimeHistogram.bucketLowerBound(index + 1)
+            } else {
+                LoadTimeHistogram.MAX_VALUE_MS + 1
+            }
+
+            // A bucket is never wider than ~3% of its values.
+            assertTrue(nextLowerBound - lowerBound <= Math.max(1, lowerBound / 32))
+            expectedLowerBound = nextLowerBound
+        }
+    }
+
+    @Test
+    fun testOutOfRangeValuesAreClamped() {
+        val histogram = LoadTimeHistogram()
+        histogram.record(-5)
+        histogram.record(10 * 60 * 1000)
+
+        val buckets = mutableMapOf<Long, Int>()
+        histogram.forEachBucket { lowerBoundMs, count -> buckets[lowerBoundMs] = count }
+
+        assertEquals(0L, buckets.keys.first())
+        assertEquals(LoadTimeHistogram.bucketLowerBound(LoadTimeHistogram.BUCKET_COUNT - 1), buckets.keys.last())
+    }
+
+    @Test
+    fun testPercentilesAreAccurate() {
+        val histogram = LoadTimeHistogram()
+        val random = Random(42)
+        val values = (1..10000).map {
+            // Log-normal distribution around one second, like real page load times.
+            Math.exp(Math.log(1000.0) + random.nextGaussian()).toLong()
+        }
+
+        values.forEach { histogram.record(it) }
+
+        val sorted = values.map { Math.min(it, LoadTimeHistogram.MAX_VALUE_MS) }.sorted()
+
+        listOf(50.0, 90.0, 99.0).forEach { percentile ->
+            val exact = sorted[Math.ceil(percentile / 100 * sorted.size).toInt() - 1]
+            val estimate = histogram.percentile(percentile)
+
+            assertTrue("p$percentile: $estimate vs $exact",
+                Math.abs(estimate - exact) <= Math.max(1.0, exact * 0.02))
+        }
+    }
+
+    @Test
+    fun testEmptyHistogram() {
+        assertEquals(-1L, LoadTimeHistogram().percentile(50.0))
+    }
+
+    @Test
+    fun testDistinctCountIsAccurate() {
+        listOf(10, 1000, 50000).forEach { distinct ->
+            val sketch = HyperLogLog()
+
+            // Add every domain twice: duplicates must not be counted.
+            repeat(2) {
+                for (i in 0 until distinct) {
+                    sketch.add("domain$i.example")
+                }
+            }
+
+            val error = Math.abs(sketch.estimate() - distinct).toDouble() / distinct
+            assertTrue("$distinct: ${sketch.estimate()}", error < 0.1)
+        }
     }
 }
@@ -0,0 +1,98 @@
+/* This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/. */
+
+package org.mozilla.focus.telemetry
+
+import org.junit.Assert.assertEquals
+import org.junit.Assert.assertFalse
+import org.junit.Assert.assertTrue
+import org.junit.Before
+import org.junit.Test
+
+class NavigationTimingsTest {
+    private var now = 1000L
+    private val recorder = NavigationTimings.Recorder { now }
+
+    @Before
+    fun setUp() {
+        NavigationTimings.clear()
+    }
+
+    @Test
+    fun testNavigationFromUrlBar() {
+        NavigationTimings.markUrlBarSubmit(now)
+
+        now += 10
+        recorder.begin()
+        now += 5
+        recorder.onInterceptRequest(false, 2_000_000)
+        now += 20
+        recorder.onPageStarted()
+        now += 5
+        recorder.onProgress()
+        recorder.onInterceptRequest(true, 3_000_000)
+        now += 100
+        recorder.onPageFinished()
+
+        assertEquals(
+            NavigationTiming(
+                urlBarSubmitted = true,
+                overrideUrlLoadingMs = -1,
+                firstInterceptMs = 15,
+                pageStartedMs = 35,
+                firstProgressMs = 40,
+                pageFinishedMs = 140,
+                requestCount = 2,
+                blockedCount = 1,
+                matcherTimeMs = 5),
+            NavigationTimings.recent().single())
+    }
+
+    @Test
+    fun testLinkClickStartsNewNavigation() {
+        recorder.begin()
+        recorder.onPageStarted()
+        now += 50
+
+        recorder.onOverrideUrlLoading()
+        now += 10
+        recorder.onPageStarted()
+        now += 10
+        recorder.onPageFinished()
+
+        val timing = NavigationTimings.recent().single()
+        assertFalse(timing.urlBarSubmitted)
+        assertEquals(0L, timing.overrideUrlLoadingMs)
+        assertEquals(10L, timing.pageStartedMs)
+        assertEquals(20L, timing.pageFinishedMs)
+    }
+
+    @Test
+    fun testRequestsOutsideOfNavigationAreIgnored() {
+        recorder.onInterceptRequest(true, 1_000_000)
+        recorder.onPageFinished()
+
+        assertTrue(NavigationTimings.recent().isEmpty())
+    }
+
+    @Test
+    fun testOldUrlBarSubmitIsIgnored() {
+        NavigationTimings.markUrlBarSubmit(now)
+        now += 60_000
+
+        recorder.onPageStarted()
+        recorder.onPageFinished()
+
+        assertFalse(NavigationTimings.recent().single().urlBarSubmitted)
+    }
+
+    @Test
+    fun testReportContainsPercentiles() {
+        recorder.onPageStarted()
+        now += 100
+        recorder.onPageFinished()
+
+        assertTrue(NavigationTimings.report().contains("onPageFinished (n=1): p50=100"))
+    }
+}
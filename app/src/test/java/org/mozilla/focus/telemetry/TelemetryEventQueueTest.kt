@@ -0,0 +1,47 @@
+/* This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/. */
+
+package org.mozilla.focus.telemetry
+
+import org.junit.Assert.assertEquals
+import org.junit.Assert.assertTrue
+import org.junit.Test
+import org.junit.runner.RunWith
+import org.robolectric.RobolectricTestRunner
+import java.util.Collections
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.TimeUnit
+
+@RunWith(RobolectricTestRunner::class)
+class TelemetryEventQueueTest {
+    @Test
+    fun testActionsAreWrittenInOrder() {
+        val written = mutableListOf<Int>()
+
+        TelemetryEventQueue.post { written.add(1) }
+        TelemetryEventQueue.post { written.add(2) }
+        TelemetryEventQueue.post { written.add(3) }
+
+        assertTrue(written.isEmpty())
+
+        TelemetryEventQueue.flush()
+
+        assertEquals(listOf(1, 2, 3), written)
+    }
+
+    @Test
+    fun testFlushNowWritesOnBackgroundThread() {
+        val latch = CountDownLatch(1)
+        val threads = Collections.synchronizedList(mutableListOf<Thread>())
+
+        TelemetryEventQueue.post {
+            threads.add(Thread.currentThread())
+            latch.countDown()
+        }
+        TelemetryEventQueue.flushNow()
+
+        assertTrue(latch.await(1, TimeUnit.SECONDS))
+        assertTrue(threads.single() != Thread.currentThread())
+    }
+}
@@ -0,0 +1,64 @@
+/* This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/. */
+
+package org.mozilla.focus.utils
+
+import org.junit.Assert.assertEquals
+import org.junit.Assert.assertTrue
+import org.junit.Test
+
+class AdaptiveDebounceTest {
+    @Test
+    fun testInitialWindow() {
+        assertEquals(120, AdaptiveDebounce().windowMs())
+    }
+
+    @Test
+    fun testFastTypingShortensWindow() {
+        val debounce = AdaptiveDebounce()
+
+        var now = 1000L
+        repeat(20) {
+            debounce.onInput(now)
+            now += 50
+        }
+
+        assertEquals(60, debounce.windowMs())
+    }
+
+    @Test
+    fun testPausesAreNotTypingSpeed() {
+        val debounce = AdaptiveDebounce()
+
+        debounce.onInput(1000)
+        debounce.onInput(10000)
+
+        assertEquals(120, debounce.windowMs())
+    }
+
+    @Test
+    fun testSlowNetworkLengthensWindow() {
+        val debounce = AdaptiveDebounce()
+
+        debounce.onRoundTrip(1200)
+
+        assertEquals(300, debounce.windowMs())
+    }
+
+    @Test
+    fun testWindowIsBounded() {
+        val debounce = AdaptiveDebounce(minWindowMs = 50, maxWindowMs = 400)
+
+        debounce.onRoundTrip(10000)
+        assertEquals(400, debounce.windowMs())
+
+        val fastTyping = AdaptiveDebounce(minWindowMs = 50, maxWindowMs = 400)
+        var now = 1000L
+        repeat(50) {
+            fastTyping.onInput(now)
+            now += 5
+        }
+        assertTrue(fastTyping.windowMs() >= 50)
+    }
+}
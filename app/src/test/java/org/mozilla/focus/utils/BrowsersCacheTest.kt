@@ -0,0 +1,48 @@
+/* This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/. */
+
+package org.mozilla.focus.utils
+
+import org.junit.Assert.assertNotSame
+import org.junit.Assert.assertNull
+import org.junit.Assert.assertSame
+import org.junit.Before
+import org.junit.Test
+import org.junit.runner.RunWith
+import org.robolectric.RobolectricTestRunner
+import org.robolectric.RuntimeEnvironment
+
+@RunWith(RobolectricTestRunner::class)
+class BrowsersCacheTest {
+    private val context = RuntimeEnvironment.application
+
+    @Before
+    fun setUp() {
+        BrowsersCache.invalidate()
+    }
+
+    @Test
+    fun testBrowsersAreMemoizedPerUrl() {
+        val browsers = BrowsersCache.get(context, Browsers.TRADITIONAL_BROWSER_URL)
+
+        assertSame(browsers, BrowsersCache.get(context, Browsers.TRADITIONAL_BROWSER_URL))
+        assertNotSame(browsers, BrowsersCache.get(context, "https://www.mozilla.org/firefox"))
+    }
+
+    @Test
+    fun testInvalidateDropsCachedBrowsers() {
+        val browsers = BrowsersCache.get(context, Browsers.TRADITIONAL_BROWSER_URL)
+
+        BrowsersCache.invalidate()
+
+        assertNotSame(browsers, BrowsersCache.get(context, Browsers.TRADITIONAL_BROWSER_URL))
+    }
+
+    @Test
+    fun testNoLinkHandlersWithoutApps() {
+        assertNull(BrowsersCache.getLinkHandlers(context, "https://www.mozilla.org"))
+        // Served from the cache the second time.
+        assertNull(BrowsersCache.getLinkHandlers(context, "https://www.mozilla.org"))
+    }
+}
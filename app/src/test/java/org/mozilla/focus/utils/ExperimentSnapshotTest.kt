@@ -0,0 +1,74 @@
+/* This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/. */
+
+package org.mozilla.focus.utils
+
+import mozilla.components.service.fretboard.ExperimentDescriptor
+import org.junit.Assert.assertEquals
+import org.junit.Assert.assertFalse
+import org.junit.Assert.assertNull
+import org.junit.Assert.assertTrue
+import org.junit.Test
+import org.junit.runner.RunWith
+import org.robolectric.RobolectricTestRunner
+import org.robolectric.RuntimeEnvironment
+import java.io.DataOutputStream
+import java.io.File
+
+@RunWith(RobolectricTestRunner::class)
+class ExperimentSnapshotTest {
+    private val file: File
+        get() = File(RuntimeEnvironment.application.filesDir, "experiments.snapshot")
+
+    @Test
+    fun testWriteAndRead() {
+        val snapshot = ExperimentSnapshot(
+            mapOf("use-gecko" to true, "home-tips" to false),
+            listOf("use-gecko:B", "home-tips:A"))
+
+        snapshot.write(file, 42)
+
+        val read = ExperimentSnapshot.read(file, 42)!!
+        assertEquals(snapshot, read)
+        assertTrue(read.isInExperiment(ExperimentDescriptor("use-gecko")))
+        assertFalse(read.isInExperiment(ExperimentDescriptor("home-tips")))
+        assertFalse(read.isInExperiment(ExperimentDescriptor("unknown")))
+        assertEquals(listOf("use-gecko:B", "home-tips:A"), read.activeExperimentNames)
+    }
+
+    @Test
+    fun testSnapshotOfOtherVersionIsIgnored() {
+        ExperimentSnapshot(mapOf("use-gecko" to true), emptyList()).write(file, 42)
+
+        assertNull(ExperimentSnapshot.read(file, 43))
+    }
+
+    @Test
+    fun testMissingSnapshot() {
+        file.delete()
+
+        assertNull(ExperimentSnapshot.read(file, 42))
+    }
+
+    @Test
+    fun testCorruptSnapshotIsIgnored() {
+        file.writeBytes(byteArrayOf(1, 2, 3))
+
+        assertNull(ExperimentSnapshot.read(file, 42))
+    }
+
+    @Test
+    fun testSnapshotWithCorruptCountIsDeleted() {
+        DataOutputStream(file.outputStream()).use {
+            it.writeInt(0x46455831)
+            it.writeInt(42)
+            it.writeShort(0)
+            // A negative number of active experiments.
+            it.writeShort(-1)
+        }
+
+        assertNull(ExperimentSnapshot.read(file, 42))
+        assertFalse(file.exists())
+    }
+}
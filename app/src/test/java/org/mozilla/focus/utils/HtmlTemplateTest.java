@@ -0,0 +1,70 @@
+/* This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/. */
+
+package org.mozilla.focus.utils;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class HtmlTemplateTest {
+    @Test
+    public void testRender() {
+        final HtmlTemplate template = HtmlTemplate.parse(
+                "<html dir=\"%dir%\"><title>%title%</title><p>%title%</p></html>",
+                Arrays.asList("%title%", "%dir%"));
+
+        final Map<String, String> values = new HashMap<>();
+        values.put("%title%", "Hello");
+        values.put("%dir%", "rtl");
+
+        assertEquals("<html dir=\"rtl\"><title>Hello</title><p>Hello</p></html>", template.render(values));
+    }
+
+    @Test
+    public void testUnknownPercentSignsAreKept() {
+        final HtmlTemplate template = HtmlTemplate.parse(
+                "div { width: 100%; } %css% 50%",
+                Collections.singletonList("%css%"));
+
+        assertEquals("div { width: 100%; } p {} 50%",
+                template.render(Collections.singletonMap("%css%", "p {}")));
+    }
+
+    @Test
+    public void testMissingValuesAreNotSubstituted() {
+        final HtmlTemplate template = HtmlTemplate.parse("a %b% c", Collections.singletonList("%b%"));
+
+        assertEquals("a %b% c", template.render(null));
+        assertEquals("a %b% c", template.render(Collections.<String, String>emptyMap()));
+    }
+
+    @Test
+    public void testValuesAreNotParsedAgain() {
+        final HtmlTemplate template = HtmlTemplate.parse("%a%%b%", Arrays.asList("%a%", "%b%"));
+
+        final Map<String, String> values = new HashMap<>();
+        values.put("%a%", "%b%");
+        values.put("%b%", "x");
+
+        assertEquals("%b%x", template.render(values));
+    }
+
+    @Test
+    public void testKnowsPlaceholders() {
+        final HtmlTemplate template = HtmlTemplate.parse("plain", Arrays.asList("%a%", "%b%"));
+
+        assertTrue(template.knowsPlaceholders(Collections.singletonList("%a%")));
+        assertTrue(template.knowsPlaceholders(Collections.<String>emptyList()));
+        assertFalse(template.knowsPlaceholders(Collections.singletonList("%c%")));
+        assertEquals("plain", template.render(null));
+    }
+}
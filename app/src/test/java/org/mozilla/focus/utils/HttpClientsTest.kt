@@ -0,0 +1,82 @@
+/* This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/. */
+
+package org.mozilla.focus.utils
+
+import okhttp3.Request
+import okhttp3.mockwebserver.MockResponse
+import okhttp3.mockwebserver.MockWebServer
+import org.junit.After
+import org.junit.Assert.assertEquals
+import org.junit.Assert.assertNull
+import org.junit.Assert.assertSame
+import org.junit.Assert.assertTrue
+import org.junit.Before
+import org.junit.Test
+import java.io.IOException
+import java.util.concurrent.TimeUnit
+
+class HttpClientsTest {
+    private lateinit var server: MockWebServer
+
+    @Before
+    fun setUp() {
+        server = MockWebServer()
+        server.start()
+    }
+
+    @After
+    fun tearDown() {
+        server.shutdown()
+    }
+
+    @Test
+    fun testClientsShareConnectionPool() {
+        val client = HttpClients.withTimeout(1000)
+
+        assertSame(HttpClients.shared.connectionPool(), client.connectionPool())
+        assertSame(HttpClients.shared.dispatcher(), client.dispatcher())
+        assertEquals(1000, client.readTimeout())
+    }
+
+    @Test
+    fun testNothingIsCached() {
+        assertNull(HttpClients.shared.cache())
+    }
+
+    @Test
+    fun testConnectionIsReused() {
+        server.enqueue(MockResponse().setBody("a"))
+        server.enqueue(MockResponse().setBody("b"))
+
+        val reusedBefore = HttpClients.reusedConnections
+
+        listOf("a", "b").forEach { expected ->
+            val response = HttpClients.withTimeout(1000)
+                .newCall(Request.Builder().url(server.url("/")).build())
+                .execute()
+
+            response.use { assertEquals(expected, it.body()!!.string()) }
+        }
+
+        assertEquals(1, HttpClients.reusedConnections - reusedBefore)
+        assertEquals(0, server.takeRequest().sequenceNumber)
+        assertEquals(1, server.takeRequest().sequenceNumber)
+    }
+
+    @Test(expected = IOException::class)
+    fun testTimeout() {
+        server.enqueue(MockResponse().setBody("slow").setBodyDelay(2, TimeUnit.SECONDS))
+
+        HttpClients.withTimeout(100)
+            .newCall(Request.Builder().url(server.url("/")).build())
+            .execute()
+            .use { it.body()!!.string() }
+    }
+
+    @Test
+    fun testReport() {
+        assertTrue(HttpClients.report().startsWith("calls="))
+    }
+}
@@ -0,0 +1,80 @@
+/* This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/. */
+
+package org.mozilla.focus.utils
+
+import org.junit.Assert.assertEquals
+import org.junit.Assert.assertTrue
+import org.junit.Test
+import org.junit.runner.RunWith
+import org.robolectric.RobolectricTestRunner
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.TimeUnit
+
+@RunWith(RobolectricTestRunner::class)
+class TaskSchedulerTest {
+    @Test
+    fun testTasksRunOnLaneThreads() {
+        val latch = CountDownLatch(1)
+        var threadName: String? = null
+
+        TaskScheduler.execute(TaskScheduler.Lane.DEFERRABLE, Runnable {
+            threadName = Thread.currentThread().name
+            latch.countDown()
+        })
+
+        assertTrue(latch.await(1, TimeUnit.SECONDS))
+        assertTrue(threadName!!.startsWith("focus-deferrable-"))
+    }
+
+    @Test
+    fun testDeferrableWorkDoesNotDelayUserBlockingWork() {
+        val release = CountDownLatch(1)
+        val userBlockingDone = CountDownLatch(1)
+
+        // Occupy every deferrable thread
+        repeat(TaskScheduler.Lane.DEFERRABLE.threads) {
+            TaskScheduler.execute(TaskScheduler.Lane.DEFERRABLE, Runnable { release.await() })
+        }
+
+        TaskScheduler.execute(TaskScheduler.Lane.USER_BLOCKING, Runnable { userBlockingDone.countDown() })
+
+        assertTrue(userBlockingDone.await(1, TimeUnit.SECONDS))
+
+        release.countDown()
+    }
+
+    @Test
+    fun testStatsAreTracked() {
+        val before = TaskScheduler.stats(TaskScheduler.Lane.USER_BLOCKING).executedTasks
+        val latch = CountDownLatch(3)
+
+        repeat(3) {
+            TaskScheduler.execute(TaskScheduler.Lane.USER_BLOCKING, Runnable { latch.countDown() })
+        }
+
+        assertTrue(latch.await(1, TimeUnit.SECONDS))
+
+        val stats = TaskScheduler.stats(TaskScheduler.Lane.USER_BLOCKING)
+        assertTrue(stats.executedTasks >= before + 3)
+        assertTrue(stats.maxWaitMs >= stats.averageWaitMs)
+    }
+
+    @Test
+    fun testSerialExecutorRunsTasksInOrder() {
+        val executor = TaskScheduler.serial(TaskScheduler.Lane.USER_BLOCKING)
+        val latch = CountDownLatch(50)
+        val order = mutableListOf<Int>()
+
+        repeat(50) { index ->
+            executor.execute {
+                synchronized(order) { order.add(index) }
+                latch.countDown()
+            }
+        }
+
+        assertTrue(latch.await(1, TimeUnit.SECONDS))
+        assertEquals((0 until 50).toList(), order)
+    }
+}
@@ -0,0 +1,55 @@
+/* This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/. */
+
+package org.mozilla.focus.web
+
+import org.junit.Assert.assertEquals
+import org.junit.Assert.assertTrue
+import org.junit.Test
+
+class EngineSettingsTest {
+    private val defaults = EngineSettings(
+        blockImages = false,
+        blockJavaScript = false,
+        blockWebFonts = false,
+        blockCookies = false,
+        blockThirdPartyCookies = false,
+        blockAdTrackers = true,
+        blockAnalyticTrackers = true,
+        blockSocialTrackers = true,
+        blockOtherTrackers = false
+    )
+
+    @Test
+    fun testEverythingChangesWithoutPreviousSnapshot() {
+        assertEquals(EngineSettings.ALL_CHANGES, defaults.changesFrom(null))
+    }
+
+    @Test
+    fun testNothingChangesForEqualSnapshots() {
+        assertTrue(defaults.changesFrom(defaults.copy()).isEmpty())
+    }
+
+    @Test
+    fun testOnlyChangedSettingsAreReported() {
+        assertEquals(
+            setOf(EngineSettings.Change.JAVASCRIPT),
+            defaults.copy(blockJavaScript = true).changesFrom(defaults))
+
+        assertEquals(
+            setOf(EngineSettings.Change.COOKIES),
+            defaults.copy(blockThirdPartyCookies = true).changesFrom(defaults))
+
+        assertEquals(
+            setOf(EngineSettings.Change.TRACKERS, EngineSettings.Change.IMAGES),
+            defaults.copy(blockOtherTrackers = true, blockImages = true).changesFrom(defaults))
+    }
+
+    @Test
+    fun testOnlyTrackerChangesClearTheCache() {
+        EngineSettings.Change.values().forEach {
+            assertEquals(it == EngineSettings.Change.TRACKERS, it.clearsCache)
+        }
+    }
+}
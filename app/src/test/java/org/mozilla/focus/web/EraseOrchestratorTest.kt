@@ -0,0 +1,146 @@
+/* This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/. */
+
+package org.mozilla.focus.web
+
+import org.junit.After
+import org.junit.Assert.assertEquals
+import org.junit.Assert.assertFalse
+import org.junit.Assert.assertTrue
+import org.junit.Before
+import org.junit.Test
+import org.junit.runner.RunWith
+import org.robolectric.RobolectricTestRunner
+import java.util.ArrayDeque
+import java.util.concurrent.Executor
+
+@RunWith(RobolectricTestRunner::class)
+class EraseOrchestratorTest {
+    /**
+     * Runs the tasks only when the test asks for it.
+     */
+    private class ManualExecutor : Executor {
+        private val tasks = ArrayDeque<Runnable>()
+
+        override fun execute(task: Runnable) {
+            tasks.add(task)
+        }
+
+        fun runNext() = tasks.poll().run()
+
+        fun runAll() {
+            while (tasks.isNotEmpty()) {
+                runNext()
+            }
+        }
+    }
+
+    private val background = ManualExecutor()
+    private val mainThread = ManualExecutor()
+    private val defaultMainThread = EraseOrchestrator.mainThread
+
+    private val actions = mutableListOf<Int>()
+
+    @Before
+    fun setUp() {
+        EraseOrchestrator.mainThread = mainThread
+    }
+
+    @After
+    fun tearDown() {
+        EraseOrchestrator.mainThread = defaultMainThread
+    }
+
+    private fun beginErase(): EraseOrchestrator.Erase = EraseOrchestrator.begin().apply {
+        runInBackground(background, "step") {}
+        seal()
+    }
+
+    private fun queue(action: Int) = EraseOrchestrator.runAfterPendingErase { actions.add(action) }
+
+    @Test
+    fun testEraseCompletesOnlyAfterSeal() {
+        val erase = EraseOrchestrator.begin()
+        erase.runInBackground(background, "step") {}
+
+        background.runAll()
+        assertFalse(erase.isComplete)
+
+        erase.seal()
+        assertTrue(erase.isComplete)
+        mainThread.runAll()
+    }
+
+    @Test
+    fun testActionRunsRightAwayWithoutPendingErase() {
+        queue(1)
+
+        assertEquals(listOf(1), actions)
+    }
+
+    @Test
+    fun testQueuedActionsRunInOrderAfterCompletion() {
+        beginErase()
+
+        queue(1)
+        queue(2)
+        mainThread.runAll()
+        assertEquals(emptyList<Int>(), actions)
+
+        background.runAll()
+        mainThread.runAll()
+        assertEquals(listOf(1, 2), actions)
+    }
+
+    @Test
+    fun testActionQueuedAfterCompletionRunsAfterEarlierActions() {
+        beginErase()
+        queue(1)
+
+        // The erase has completed but the queued action hasn't run yet.
+        background.runAll()
+        queue(2)
+        assertEquals(emptyList<Int>(), actions)
+
+        mainThread.runAll()
+        assertEquals(listOf(1, 2), actions)
+
+        queue(3)
+        assertEquals(listOf(1, 2, 3), actions)
+    }
+
+    @Test
+    fun testActionWaitsForOverlappingErases() {
+        val first = beginErase()
+        val second = beginErase()
+        queue(1)
+
+        background.runNext()
+        mainThread.runAll()
+        assertTrue(first.isComplete)
+        assertFalse(second.isComplete)
+        assertEquals(emptyList<Int>(), actions)
+
+        background.runNext()
+        mainThread.runAll()
+        assertEquals(listOf(1), actions)
+    }
+
+    @Test
+    fun testCompletionListenersRunOnMainThread() {
+        val erase = beginErase()
+        erase.addCompletionListener { actions.add(1) }
+
+        background.runAll()
+        assertEquals(emptyList<Int>(), actions)
+
+        mainThread.runAll()
+        assertEquals(listOf(1), actions)
+
+        // Listeners added after completion are called, too.
+        erase.addCompletionListener { actions.add(2) }
+        mainThread.runAll()
+        assertEquals(listOf(1, 2), actions)
+    }
+}